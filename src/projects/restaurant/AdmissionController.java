@@ -0,0 +1,270 @@
+package projects.restaurant;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// ============================================================================
+// ADMISSION CONTROL - rate limits per channel and an adaptive concurrency limit
+// ============================================================================
+
+// Two gates in front of placeOrder, both failing fast:
+//
+// 1. A token bucket per order channel (web, app, phone, ...): rate tokens per second,
+//    up to burst saved. Implemented as GCRA - one "theoretical arrival time" per
+//    bucket advanced with a CAS - which admits exactly what a token bucket does
+//    without a refill thread or a lock, and tells a rejected caller exactly when the
+//    next token will exist.
+// 2. An AIMD concurrency limit on placements in flight. Each finished placement
+//    reports its latency (payment dominates it); if that or the kitchen's current
+//    queue wait is over target, the limit is cut by a factor (at most once per
+//    target latency, so one burst of slow samples counts once), otherwise it grows
+//    by 1/limit, i.e. by about one per limit's worth of placements - but only when the
+//    placement ran with at least half the limit in flight. A quiet period proves
+//    nothing about higher concurrency, so it must not let the limit drift up to max
+//    and leave the next burst unprotected.
+//    An order that finds the limit reached is rejected with the smoothed placement
+//    latency as its retry hint.
+class AdmissionController {
+    static final String DEFAULT_CHANNEL = "direct";
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final double defaultRate;
+    private final int defaultBurst;
+    private final LongSupplier kitchenWaitMicros;
+    private final long paymentTargetNanos;
+    private final long kitchenTargetMicros;
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoff;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit; // written under this
+    private long lastDecreaseNanos;
+    private volatile long smoothedLatencyNanos;
+
+    // Metrics
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong overCapacity = new AtomicLong();
+    private final AtomicLong decreases = new AtomicLong();
+
+    private AdmissionController(Builder builder, LongSupplier kitchenWaitMicros) {
+        for (Map.Entry<String, double[]> channel : builder.channels.entrySet()) {
+            buckets.put(channel.getKey(), new TokenBucket(channel.getValue()[0], (int) channel.getValue()[1]));
+        }
+        this.defaultRate = builder.defaultRate;
+        this.defaultBurst = builder.defaultBurst;
+        this.kitchenWaitMicros = kitchenWaitMicros;
+        this.paymentTargetNanos = builder.paymentTarget.toNanos();
+        this.kitchenTargetMicros = builder.kitchenTarget.toNanos() / 1_000;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.backoff = builder.backoff;
+        this.limit = builder.initialLimit;
+        this.smoothedLatencyNanos = paymentTargetNanos / 2;
+        this.lastDecreaseNanos = System.nanoTime() - paymentTargetNanos; // nanoTime may be negative
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    // Admits one placement or throws OrderRejectedException; every successful call
+    // must be paired with release(returned start time)
+    public long acquire(String channel) {
+        TokenBucket bucket = buckets.get(channel);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(channel, c -> new TokenBucket(defaultRate, defaultBurst));
+        }
+        long now = System.nanoTime();
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            rateLimited.incrementAndGet();
+            bucket.rejected.incrementAndGet();
+            throw new OrderRejectedException(OrderRejectedException.Reason.RATE_LIMITED, channel, toRetryMillis(waitNanos));
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                overCapacity.incrementAndGet();
+                bucket.rejected.incrementAndGet();
+                bucket.refund();
+                throw new OrderRejectedException(OrderRejectedException.Reason.OVER_CAPACITY, channel,
+                        toRetryMillis(smoothedLatencyNanos));
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        admitted.incrementAndGet();
+        bucket.admitted.incrementAndGet();
+        return now;
+    }
+
+    public void release(long startedNanos) {
+        long now = System.nanoTime();
+        long latency = now - startedNanos;
+        boolean saturated = inFlight.getAndDecrement() >= limit / 2;
+        boolean overloaded = latency > paymentTargetNanos || kitchenWaitMicros.getAsLong() > kitchenTargetMicros;
+        synchronized (this) {
+            smoothedLatencyNanos += (latency - smoothedLatencyNanos) / 8; // EWMA, alpha 1/8
+            if (!overloaded) {
+                if (saturated) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            } else if (now - lastDecreaseNanos >= paymentTargetNanos) {
+                limit = Math.max(minLimit, limit * backoff);
+                lastDecreaseNanos = now;
+                decreases.incrementAndGet();
+            }
+        }
+    }
+
+    private static long toRetryMillis(long nanos) {
+        return Math.max(1, (nanos + 999_999) / 1_000_000);
+    }
+
+    // ------------------------------------------------------------------------
+    // Metrics
+    // ------------------------------------------------------------------------
+
+    public int getLimit() { return (int) limit; }
+    public int getInFlight() { return inFlight.get(); }
+    public long getAdmitted() { return admitted.get(); }
+    public long getRateLimited() { return rateLimited.get(); }
+    public long getOverCapacity() { return overCapacity.get(); }
+    public long getRejected() { return rateLimited.get() + overCapacity.get(); }
+    public long getLimitDecreases() { return decreases.get(); }
+
+    public long getRejected(String channel) {
+        TokenBucket bucket = buckets.get(channel);
+        return bucket != null ? bucket.rejected.get() : 0;
+    }
+
+    public void printReport() {
+        System.out.println("\n🚦 ADMISSION CONTROL");
+        System.out.println("=".repeat(60));
+        System.out.printf("Concurrency limit: %d (in flight %d, %d cuts)   Placement latency ~%s%n", getLimit(),
+                getInFlight(), getLimitDecreases(), StateLatencyTracker.formatMicros(smoothedLatencyNanos / 1_000));
+        System.out.printf("Admitted: %d   Rate limited: %d   Over capacity: %d%n",
+                getAdmitted(), getRateLimited(), getOverCapacity());
+        System.out.printf("%-12s %10s %10s %10s%n", "Channel", "Rate/s", "Admitted", "Rejected");
+        for (Map.Entry<String, TokenBucket> channel : new TreeMap<>(buckets).entrySet()) {
+            TokenBucket bucket = channel.getValue();
+            String rate = bucket.intervalNanos == 0 ? "unlimited" : String.format("%.1f", 1e9 / bucket.intervalNanos);
+            System.out.printf("%-12s %10s %10d %10d%n", channel.getKey(), rate,
+                    bucket.admitted.get(), bucket.rejected.get());
+        }
+        System.out.println("=".repeat(60));
+    }
+
+    // GCRA form of a token bucket: tat is when the bucket would be full again
+    private static final class TokenBucket {
+        final long intervalNanos;  // one token every interval; 0 = unlimited (counts only)
+        final long capacityNanos;  // burst tokens' worth of time
+        final AtomicLong tat = new AtomicLong(Long.MIN_VALUE / 2);
+        final AtomicLong admitted = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+
+        TokenBucket(double ratePerSecond, int burst) {
+            this.intervalNanos = ratePerSecond <= 0 ? 0 : Math.max(1, (long) (1e9 / ratePerSecond));
+            this.capacityNanos = intervalNanos * Math.max(1, burst);
+        }
+
+        // 0 if a token was taken, else nanoseconds until one will be available
+        long tryAcquire(long now) {
+            if (intervalNanos == 0) {
+                return 0;
+            }
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long excess = next - now - capacityNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        // Gives back a token taken by an order the concurrency limit then turned away
+        void refund() {
+            if (intervalNanos == 0) {
+                return;
+            }
+            tat.addAndGet(-intervalNanos);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Builder
+    // ------------------------------------------------------------------------
+
+    static class Builder {
+        private final Map<String, double[]> channels = new HashMap<>(); // name -> {rate, burst}
+        private double defaultRate = 0; // unlimited
+        private int defaultBurst = 1;
+        private Duration paymentTarget = Duration.ofMillis(250);
+        private Duration kitchenTarget = Duration.ofMinutes(20);
+        private double initialLimit = 32;
+        private double minLimit = 1;
+        private double maxLimit = 1_000;
+        private double backoff = 0.9;
+
+        // Sustained orders per second and how many can arrive at once on one channel
+        public Builder channel(String name, double ratePerSecond, int burst) {
+            if (ratePerSecond <= 0 || burst <= 0) {
+                throw new IllegalArgumentException("Channel " + name + " needs a positive rate and burst");
+            }
+            channels.put(name, new double[] {ratePerSecond, burst});
+            return this;
+        }
+
+        // For channels not configured explicitly; without it they are not rate limited
+        public Builder defaultChannel(double ratePerSecond, int burst) {
+            this.defaultRate = ratePerSecond;
+            this.defaultBurst = burst;
+            return this;
+        }
+
+        // Placements slower than this (payment gateway) shrink the concurrency limit
+        public Builder paymentLatencyTarget(Duration target) {
+            this.paymentTarget = target;
+            return this;
+        }
+
+        // So does a kitchen whose tasks wait longer than this to start
+        public Builder kitchenWaitTarget(Duration target) {
+            this.kitchenTarget = target;
+            return this;
+        }
+
+        public Builder concurrencyLimit(int initial, int min, int max) {
+            if (min < 1 || initial < min || max < initial) {
+                throw new IllegalArgumentException("Need 1 <= min <= initial <= max");
+            }
+            this.initialLimit = initial;
+            this.minLimit = min;
+            this.maxLimit = max;
+            return this;
+        }
+
+        // Factor the limit is multiplied by on overload
+        public Builder backoff(double backoff) {
+            this.backoff = backoff;
+            return this;
+        }
+
+        public AdmissionController build(LongSupplier kitchenWaitMicros) {
+            return new AdmissionController(this, kitchenWaitMicros);
+        }
+    }
+}
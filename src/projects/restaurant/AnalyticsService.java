@@ -0,0 +1,173 @@
+package projects.restaurant;
+
+import java.util.function.LongSupplier;
+
+// ============================================================================
+// ANALYTICS
+// ============================================================================
+
+// Analytics service for tracking metrics: striped counters plus 1m/15m/1h rolling
+// windows, O(1) per event on any publishing thread; see printDashboard()
+class AnalyticsService implements OrderObserver {
+    static final int ORDERS_PLACED = 0;
+    static final int SUCCESSFUL_PAYMENTS = 1;
+    static final int FAILED_PAYMENTS = 2;
+    static final int CANCELLED_ORDERS = 3;
+    static final int DELIVERED_ORDERS = 4;
+    static final int REVENUE_CENTS = 5;
+    private static final int FIELDS = 6;
+
+    static final long ONE_MINUTE = 60_000;
+    static final long FIFTEEN_MINUTES = 15 * ONE_MINUTE;
+    static final long ONE_HOUR = 60 * ONE_MINUTE;
+
+    private final StripedCounters counters = new StripedCounters(FIELDS);
+    private final LongSupplier clock;
+    private final long startedAtMillis;
+    private final SlidingWindowCounters lastMinute;  // 1 s buckets
+    private final SlidingWindowCounters lastHour;    // 1 min buckets
+
+    AnalyticsService() {
+        this(System::currentTimeMillis);
+    }
+
+    AnalyticsService(LongSupplier clock) {
+        this.clock = clock;
+        this.startedAtMillis = clock.getAsLong();
+        this.lastMinute = new SlidingWindowCounters(FIELDS, 1_000, 60, clock);
+        this.lastHour = new SlidingWindowCounters(FIELDS, ONE_MINUTE, 60, clock);
+    }
+
+    private void count(int field) {
+        long now = clock.getAsLong();
+        counters.add(field, 1);
+        lastMinute.add(now, field, 1);
+        lastHour.add(now, field, 1);
+    }
+
+    // The only status change analytics tracks is delivery
+    @Override
+    public OrderEventInterest getInterest() {
+        return OrderEventInterest.all().onlyStatuses(OrderState.DELIVERED);
+    }
+
+    @Override
+    public void onOrderPlaced(Order order) {
+        count(ORDERS_PLACED);
+    }
+
+    @Override
+    public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        if (newStatus == OrderState.DELIVERED) {
+            count(DELIVERED_ORDERS);
+        }
+    }
+
+    @Override
+    public void onOrderCancelled(Order order) {
+        count(CANCELLED_ORDERS);
+    }
+
+    @Override
+    public void onPaymentProcessed(Order order, PaymentResult paymentResult) {
+        if (paymentResult.isSuccess()) {
+            long now = clock.getAsLong();
+            long cents = order.getTotalCents();
+            counters.add(SUCCESSFUL_PAYMENTS, 1, REVENUE_CENTS, cents);
+            lastMinute.add(now, SUCCESSFUL_PAYMENTS, 1, REVENUE_CENTS, cents);
+            lastHour.add(now, SUCCESSFUL_PAYMENTS, 1, REVENUE_CENTS, cents);
+        } else {
+            count(FAILED_PAYMENTS);
+        }
+    }
+
+    // Consistent view of all counters, e.g. revenue always matches the payments counted
+    public Snapshot getSnapshot() {
+        return new Snapshot(counters.snapshot());
+    }
+
+    // Totals over the last windowMillis (up to one hour): one-second resolution for
+    // windows up to a minute, one-minute resolution beyond that
+    public Snapshot getWindow(long windowMillis) {
+        SlidingWindowCounters ring = windowMillis <= lastMinute.getSpanMillis() ? lastMinute : lastHour;
+        long covered = Math.min(ring.coveredMillis(windowMillis), clock.getAsLong() - startedAtMillis + 1);
+        return new Snapshot(ring.sum(windowMillis), covered);
+    }
+
+    static class Snapshot {
+        private final long[] values;
+        private final long spanMillis; // time the numbers cover; 0 for all-time totals
+
+        Snapshot(long[] values) {
+            this(values, 0);
+        }
+
+        Snapshot(long[] values, long spanMillis) {
+            this.values = values;
+            this.spanMillis = spanMillis;
+        }
+
+        public double getOrdersPerMinute() {
+            return spanMillis == 0 ? 0 : getTotalOrders() * 60_000.0 / spanMillis;
+        }
+
+        public double getPaymentFailureRate() {
+            long payments = getSuccessfulPayments() + getFailedPayments();
+            return payments == 0 ? 0 : getFailedPayments() * 100.0 / payments;
+        }
+
+        public double getCancellationRate() {
+            return getTotalOrders() == 0 ? 0 : getCancelledOrders() * 100.0 / getTotalOrders();
+        }
+
+        public long getTotalOrders() { return values[ORDERS_PLACED]; }
+        public long getSuccessfulPayments() { return values[SUCCESSFUL_PAYMENTS]; }
+        public long getFailedPayments() { return values[FAILED_PAYMENTS]; }
+        public long getCancelledOrders() { return values[CANCELLED_ORDERS]; }
+        public long getDeliveredOrders() { return values[DELIVERED_ORDERS]; }
+        public long getRevenueCents() { return values[REVENUE_CENTS]; }
+
+        // Revenue per successful payment, rounded half-even to the cent
+        public long getAverageOrderCents() {
+            return getSuccessfulPayments() == 0 ? 0 : Money.scale(getRevenueCents(), 1, getSuccessfulPayments());
+        }
+    }
+
+    private static void printWindow(String label, Snapshot window) {
+        System.out.printf("%-7s %10.1f %9s %8.1f %8.1f%n", label, window.getOrdersPerMinute(),
+                Money.format(window.getRevenueCents()), window.getPaymentFailureRate(), window.getCancellationRate());
+    }
+
+    public void printDashboard() {
+        Snapshot snapshot = getSnapshot();
+        long totalOrders = snapshot.getTotalOrders();
+        long successfulPayments = snapshot.getSuccessfulPayments();
+        long failedPayments = snapshot.getFailedPayments();
+        long cancelledOrders = snapshot.getCancelledOrders();
+
+        System.out.println("\n📊 ANALYTICS DASHBOARD");
+        System.out.println("=".repeat(40));
+        System.out.printf("Total Orders: %d%n", totalOrders);
+        System.out.printf("Successful Payments: %d%n", successfulPayments);
+        System.out.printf("Failed Payments: %d%n", failedPayments);
+        System.out.printf("Cancelled Orders: %d%n", cancelledOrders);
+        System.out.printf("Delivered Orders: %d%n", snapshot.getDeliveredOrders());
+        System.out.printf("Total Revenue: %s%n", Money.format(snapshot.getRevenueCents()));
+        if (successfulPayments > 0) {
+            System.out.printf("Average Order Value: %s%n", Money.format(snapshot.getAverageOrderCents()));
+        }
+        if (successfulPayments + failedPayments > 0) {
+            System.out.printf("Payment Success Rate: %.1f%%%n",
+                    (successfulPayments * 100.0 / (successfulPayments + failedPayments)));
+        }
+        if (totalOrders > 0) {
+            System.out.printf("Cancellation Rate: %.1f%%%n", (cancelledOrders * 100.0 / totalOrders));
+        }
+        System.out.println("-".repeat(40));
+        System.out.println("Window   Orders/min   Revenue   Failed%  Cancel%");
+        printWindow("1 min", getWindow(ONE_MINUTE));
+        printWindow("15 min", getWindow(FIFTEEN_MINUTES));
+        printWindow("1 hour", getWindow(ONE_HOUR));
+        System.out.println("=".repeat(40));
+    }
+}
@@ -0,0 +1,317 @@
+package projects.restaurant;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ============================================================================
+// ASYNC OBSERVER DECORATOR - each observer gets its own bounded queue and worker
+// ============================================================================
+
+// Wraps a (possibly slow) observer so order state changes only pay for an enqueue.
+// Events are delivered on a dedicated worker thread in the order they were queued.
+// Batch brackets travel through the queue as markers, are never dropped, and end
+// status-change coalescing, so the delegate sees each batch's events between them.
+class AsyncOrderObserver implements OrderObserver {
+    static final long DEFAULT_BLOCK_MILLIS = 100;
+
+    private static final class Event {
+        final OrderEventType type; // null for a batch marker
+        final Order order;
+        final OrderState previousStatus;
+        OrderState newStatus; // updated in place when status changes are coalesced
+        final PaymentResult paymentResult;
+        final boolean batchStarted;
+        final long enqueuedAtNanos;
+
+        Event(boolean batchStarted) {
+            this(null, null, null, null, null, batchStarted);
+        }
+
+        Event(OrderEventType type, Order order, OrderState previousStatus, OrderState newStatus,
+              PaymentResult paymentResult) {
+            this(type, order, previousStatus, newStatus, paymentResult, false);
+        }
+
+        private Event(OrderEventType type, Order order, OrderState previousStatus, OrderState newStatus,
+              PaymentResult paymentResult, boolean batchStarted) {
+            this.type = type;
+            this.order = order;
+            this.previousStatus = previousStatus;
+            this.newStatus = newStatus;
+            this.paymentResult = paymentResult;
+            this.batchStarted = batchStarted;
+            this.enqueuedAtNanos = System.nanoTime();
+        }
+    }
+
+    private final OrderObserver delegate;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockMillis; // BLOCK only: longest a publisher waits for space
+
+    private final ArrayDeque<Event> queue;
+    private final Map<String, Event> pendingStatusChanges = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // Metrics
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+
+    AsyncOrderObserver(OrderObserver delegate, int capacity, OverflowPolicy overflowPolicy) {
+        this(delegate, capacity, overflowPolicy, DEFAULT_BLOCK_MILLIS);
+    }
+
+    // With BLOCK, a publisher that finds the queue full waits up to blockMillis for
+    // space and then drops the oldest event
+    AsyncOrderObserver(OrderObserver delegate, int capacity, OverflowPolicy overflowPolicy, long blockMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        if (blockMillis < 0) {
+            throw new IllegalArgumentException("Block timeout must not be negative");
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.blockMillis = blockMillis;
+        this.queue = new ArrayDeque<>(capacity);
+        this.worker = new Thread(this::runWorker, "notify-" + delegate.getClass().getSimpleName());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    // Filter before enqueueing so uninterested events never touch the queue
+    @Override
+    public OrderEventInterest getInterest() {
+        return delegate.getInterest();
+    }
+
+    @Override
+    public void onOrderPlaced(Order order) {
+        enqueue(new Event(OrderEventType.ORDER_PLACED, order, null, null, null));
+    }
+
+    @Override
+    public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        enqueue(new Event(OrderEventType.STATUS_CHANGED, order, previousStatus, newStatus, null));
+    }
+
+    @Override
+    public void onOrderCancelled(Order order) {
+        enqueue(new Event(OrderEventType.ORDER_CANCELLED, order, null, null, null));
+    }
+
+    @Override
+    public void onPaymentProcessed(Order order, PaymentResult paymentResult) {
+        enqueue(new Event(OrderEventType.PAYMENT_PROCESSED, order, null, null, paymentResult));
+    }
+
+    @Override
+    public void onOrderRemoved(Order order) {
+        enqueue(new Event(OrderEventType.ORDER_REMOVED, order, null, null, null));
+    }
+
+    @Override
+    public void onBatchStarted() {
+        enqueue(new Event(true));
+    }
+
+    @Override
+    public void onBatchFinished() {
+        enqueue(new Event(false));
+    }
+
+    private void enqueue(Event event) {
+        lock.lock();
+        try {
+            if (!running) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (event.type == null) {
+                pendingStatusChanges.clear(); // never merge a change into another batch
+            } else if (overflowPolicy == OverflowPolicy.COALESCE && event.type == OrderEventType.STATUS_CHANGED) {
+                Event pending = pendingStatusChanges.get(event.order.getOrderId());
+                if (pending != null) {
+                    // Keep the original "from" status, move the "to" status forward
+                    pending.newStatus = event.newStatus;
+                    coalesced.incrementAndGet();
+                    return;
+                }
+            }
+            long blockNanos = TimeUnit.MILLISECONDS.toNanos(blockMillis);
+            while (queue.size() >= capacity) {
+                if (overflowPolicy == OverflowPolicy.BLOCK && blockNanos > 0) {
+                    try {
+                        blockNanos = notFull.awaitNanos(blockNanos);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        blockNanos = 0;
+                    }
+                    if (!running) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                } else {
+                    dropOldest();
+                }
+            }
+            queue.addLast(event);
+            if (overflowPolicy == OverflowPolicy.COALESCE && event.type == OrderEventType.STATUS_CHANGED) {
+                pendingStatusChanges.put(event.order.getOrderId(), event);
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Oldest order event; batch markers stay unless the queue holds nothing else
+    private void dropOldest() {
+        Iterator<Event> it = queue.iterator();
+        while (it.hasNext()) {
+            Event event = it.next();
+            if (event.type != null) {
+                it.remove();
+                forget(event);
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        queue.pollFirst();
+        dropped.incrementAndGet();
+    }
+
+    private void forget(Event event) {
+        if (event != null && event.type == OrderEventType.STATUS_CHANGED) {
+            pendingStatusChanges.remove(event.order.getOrderId(), event);
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            Event event;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && running) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (queue.isEmpty()) {
+                    return; // closed and fully drained
+                }
+                event = queue.pollFirst();
+                forget(event);
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(Event event) {
+        long lag = System.nanoTime() - event.enqueuedAtNanos;
+        lastLagNanos = lag;
+        if (lag > maxLagNanos) {
+            maxLagNanos = lag;
+        }
+        try {
+            if (event.type == null) {
+                if (event.batchStarted) {
+                    delegate.onBatchStarted();
+                } else {
+                    delegate.onBatchFinished();
+                }
+                return; // markers are not counted as delivered events
+            }
+            switch (event.type) {
+                case ORDER_PLACED:
+                    delegate.onOrderPlaced(event.order);
+                    break;
+                case STATUS_CHANGED:
+                    delegate.onOrderStatusChanged(event.order, event.previousStatus, event.newStatus);
+                    break;
+                case ORDER_CANCELLED:
+                    delegate.onOrderCancelled(event.order);
+                    break;
+                case PAYMENT_PROCESSED:
+                    delegate.onPaymentProcessed(event.order, event.paymentResult);
+                    break;
+                case ORDER_REMOVED:
+                    delegate.onOrderRemoved(event.order);
+                    break;
+            }
+        } catch (Exception e) {
+            System.err.println("Error in observer notification: " + e.getMessage());
+        }
+        delivered.incrementAndGet();
+    }
+
+    // Stops accepting events, delivers what is already queued and waits for the worker
+    public void close(long timeout, TimeUnit unit) {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            worker.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public OrderObserver getDelegate() { return delegate; }
+    public OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+    public int getCapacity() { return capacity; }
+    public long getBlockMillis() { return blockMillis; }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Age of the oldest event still waiting, i.e. how far the observer is behind right now
+    public long getCurrentLagMillis() {
+        lock.lock();
+        try {
+            Event oldest = queue.peekFirst();
+            return oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedAtNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLastLagMillis() { return TimeUnit.NANOSECONDS.toMillis(lastLagNanos); }
+    public long getMaxLagMillis() { return TimeUnit.NANOSECONDS.toMillis(maxLagNanos); }
+    public long getDeliveredCount() { return delivered.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+    public long getCoalescedCount() { return coalesced.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s] depth=%d/%d lag=%dms (max %dms) delivered=%d dropped=%d coalesced=%d",
+                delegate.getClass().getSimpleName(), overflowPolicy, getQueueDepth(), capacity,
+                getCurrentLagMillis(), getMaxLagMillis(), getDeliveredCount(), getDroppedCount(), getCoalescedCount());
+    }
+}
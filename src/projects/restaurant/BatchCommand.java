@@ -0,0 +1,63 @@
+package projects.restaurant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// ============================================================================
+// BATCH COMMAND
+// ============================================================================
+
+// Several commands applied, recorded and undone as one history entry.
+// All or nothing: if one command fails, the ones before it are undone.
+class BatchCommand implements Command {
+    private final List<Command> commands;
+
+    BatchCommand(List<Command> commands) {
+        this.commands = new ArrayList<>(commands);
+    }
+
+    @Override
+    public boolean execute() {
+        for (int i = 0; i < commands.size(); i++) {
+            if (!commands.get(i).execute()) {
+                for (int j = i - 1; j >= 0; j--) {
+                    commands.get(j).undo();
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void undo() {
+        for (int i = commands.size() - 1; i >= 0; i--) {
+            commands.get(i).undo();
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Batch of " + commands.size() + " commands (" + commands.get(0).getDescription()
+                + (commands.size() > 1 ? ", ..." : "") + ")";
+    }
+
+    // Distinct target orders in a global (order number) sequence, so two batches
+    // always lock shared orders in the same order
+    List<Order> getTargetOrders() {
+        Map<Long, Order> orders = new TreeMap<>();
+        for (Command command : commands) {
+            Order order = command.getTargetOrder();
+            if (order != null) {
+                orders.put(order.getOrderNumber(), order);
+            }
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    public int size() {
+        return commands.size();
+    }
+}
@@ -0,0 +1,56 @@
+package projects.restaurant;
+
+// ============================================================================
+// CANCEL ORDER COMMAND
+// ============================================================================
+
+class CancelOrderCommand implements Command {
+    private final OrderManager orderManager;
+    private final String orderId;
+    private OrderState previousState;
+
+    public CancelOrderCommand(OrderManager orderManager, String orderId) {
+        this.orderManager = orderManager;
+        this.orderId = orderId;
+    }
+
+    @Override
+    public boolean execute() {
+        Order order = orderManager.getOrder(orderId);
+        if (order == null) {
+            return false;
+        }
+        synchronized (order) {
+            if (!order.canCancel()) {
+                return false;
+            }
+            OrderState before = order.getCurrentState();
+            order.cancel();
+            if (order.getCurrentState() != OrderState.CANCELLED) {
+                return false;
+            }
+            previousState = before;
+        }
+        System.out.println("✅ Executed: Order " + orderId + " cancelled");
+        return true;
+    }
+
+    @Override
+    public void undo() {
+        Order order = orderManager.getOrder(orderId);
+        if (order != null && previousState != null) {
+            order.restoreState(previousState);
+            System.out.println("↩️ Undone: Order " + orderId + " cancellation reverted");
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Cancel Order " + orderId;
+    }
+
+    @Override
+    public Order getTargetOrder() {
+        return orderManager.getOrder(orderId);
+    }
+}
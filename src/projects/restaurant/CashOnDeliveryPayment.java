@@ -0,0 +1,28 @@
+package projects.restaurant;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// ============================================================================
+// CASH ON DELIVERY PAYMENT
+// ============================================================================
+
+class CashOnDeliveryPayment implements PaymentStrategy {
+    @Override
+    public PaymentResult processPayment(long amountCents, String orderId) {
+        System.out.println("💵 Cash on Delivery setup for " + Money.format(amountCents));
+
+        String transactionId = IdGenerator.getDefault().nextId("COD-");
+        return new PaymentResult(true, transactionId, "Cash on delivery confirmed", "Cash on Delivery");
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> processPaymentAsync(long amountCents, String orderId, Executor executor) {
+        return CompletableFuture.completedFuture(processPayment(amountCents, orderId));
+    }
+
+    @Override
+    public String getPaymentType() {
+        return "Cash on Delivery";
+    }
+}
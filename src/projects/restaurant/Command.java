@@ -0,0 +1,23 @@
+package projects.restaurant;
+
+import java.util.concurrent.CompletableFuture;
+
+// ============================================================================
+// SAME COMMAND PATTERN FROM PHASE 5 (with notification integration)
+// ============================================================================
+
+interface Command {
+    boolean execute();
+    void undo();
+    String getDescription();
+
+    // Commands with slow I/O override this to complete without holding a thread
+    default CompletableFuture<Boolean> executeAsync() {
+        return CompletableFuture.completedFuture(execute());
+    }
+
+    // The order this command changes, if any; a batch holds its lock for the whole batch
+    default Order getTargetOrder() {
+        return null;
+    }
+}
@@ -0,0 +1,136 @@
+package projects.restaurant;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// ============================================================================
+// COMMAND HISTORY ARCHIVE - commands that fell out of the undo window
+// ============================================================================
+
+// Append-only file of command descriptions, one [int length][UTF-8 bytes] record
+// each. Only the description is kept, so the evicted Command (and the Order it
+// references) can be garbage collected. A sparse index holds the file offset of
+// every INDEX_INTERVAL-th entry, so paging seeks close to the page and the heap
+// cost stays at one long per INDEX_INTERVAL archived commands.
+class CommandHistoryArchive implements AutoCloseable {
+    private static final int INDEX_INTERVAL = 256;
+
+    private final Path file;
+    private final boolean deleteOnClose;
+    private DataOutputStream out;       // opened on first append
+    private long sizeBytes;
+    private long count;
+    private long[] sparseIndex = new long[16];
+    private boolean closed;
+
+    CommandHistoryArchive(Path file) {
+        this(file, false);
+    }
+
+    private CommandHistoryArchive(Path file, boolean deleteOnClose) {
+        this.file = file;
+        this.deleteOnClose = deleteOnClose;
+    }
+
+    // Archive in a temp file that is removed when the archive is closed (or the JVM exits)
+    static CommandHistoryArchive temporary() {
+        try {
+            Path file = Files.createTempFile("command-history", ".log");
+            file.toFile().deleteOnExit();
+            return new CommandHistoryArchive(file, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create command history archive", e);
+        }
+    }
+
+    public synchronized void append(String description) {
+        if (closed) {
+            throw new IllegalStateException("Command history archive is closed: " + file);
+        }
+        try {
+            if (out == null) {
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE), 64 * 1024));
+            }
+            if (count % INDEX_INTERVAL == 0) {
+                int slot = (int) (count / INDEX_INTERVAL);
+                if (slot == sparseIndex.length) {
+                    sparseIndex = Arrays.copyOf(sparseIndex, slot * 2);
+                }
+                sparseIndex[slot] = sizeBytes;
+            }
+            byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            sizeBytes += 4 + bytes.length;
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot archive command history to " + file, e);
+        }
+    }
+
+    // Descriptions of archived entries [from, from + limit), oldest first
+    public synchronized List<String> read(long from, int limit) {
+        List<String> descriptions = new ArrayList<>();
+        if (from < 0 || from >= count || limit <= 0) {
+            return descriptions;
+        }
+        try {
+            if (out != null) {
+                out.flush();
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                channel.position(sparseIndex[(int) (from / INDEX_INTERVAL)]);
+                InputStream stream = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+                DataInputStream in = new DataInputStream(stream);
+                for (long skip = from % INDEX_INTERVAL; skip > 0; skip--) {
+                    in.skipNBytes(in.readInt());
+                }
+                long end = Math.min(count, from + limit);
+                for (long i = from; i < end; i++) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    descriptions.add(new String(bytes, StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read command history archive " + file, e);
+        }
+        return descriptions;
+    }
+
+    public synchronized long getCount() { return count; }
+    public synchronized long getSizeBytes() { return sizeBytes; }
+    public Path getFile() { return file; }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+            if (deleteOnClose) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package projects.restaurant;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+// ============================================================================
+// COMMAND INVOKER - undo/redo history
+// ============================================================================
+
+// Commands execute outside the lock so slow work (payments, notifications) runs in
+// parallel; only the history bookkeeping is serialized.
+// The undo/redo window is a fixed-capacity ring buffer. When it is full the oldest
+// command is evicted and only its description is kept, in a CommandHistoryArchive
+// file, so the heap stays flat however long the restaurant is open.
+class CommandInvoker {
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private final Command[] ring;
+    private final CommandHistoryArchive archive;
+    private final OrderEventBus eventBus; // batches coalesce their notifications on it; may be null
+    private int head;     // ring index of the oldest in-memory command
+    private int size;     // commands in the ring
+    private int applied;  // the first `applied` commands in the ring are done; the rest can be redone
+
+    CommandInvoker() {
+        this(DEFAULT_CAPACITY, null, null);
+    }
+
+    // archive may be null: evicted commands then go to a temp file deleted on shutdown
+    CommandInvoker(int capacity, CommandHistoryArchive archive, OrderEventBus eventBus) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("History capacity must be positive");
+        }
+        this.ring = new Command[capacity];
+        this.archive = archive != null ? archive : CommandHistoryArchive.temporary();
+        this.eventBus = eventBus;
+    }
+
+    public boolean executeCommand(Command command) {
+        boolean success = command.execute();
+
+        if (success) {
+            record(command);
+        }
+
+        return success;
+    }
+
+    public CompletableFuture<Boolean> executeCommandAsync(Command command) {
+        return command.executeAsync().thenApply(success -> {
+            if (success) {
+                record(command);
+            }
+            return success;
+        });
+    }
+
+    // Applies all commands under one acquisition of the history lock plus the locks of
+    // every order they touch, so no other thread sees or changes those orders half-way.
+    // Observers get one coalesced set of notifications (and the event log one write)
+    // for the whole batch, and the batch is a single history entry that undoes as a unit.
+    public synchronized boolean executeBatch(List<Command> commands) {
+        if (commands.isEmpty()) {
+            return true;
+        }
+        BatchCommand batch = new BatchCommand(commands);
+        boolean success = inBatch(batch, batch::execute);
+        if (success) {
+            record(batch);
+        }
+        return success;
+    }
+
+    // Same locking, all-or-nothing and coalesced notifications, but not recorded: for
+    // background transitions (drivers) that must not become the operator's undo history.
+    // Takes only order locks, never the history lock.
+    public boolean applyBatch(List<Command> commands) {
+        if (commands.isEmpty()) {
+            return true;
+        }
+        BatchCommand batch = new BatchCommand(commands);
+        return inBatch(batch, batch::execute);
+    }
+
+    // If the event log cannot record the batch, endBatch() throws before any observer
+    // sees it and the orders are put back, silently, as they were before the batch
+    private boolean inBatch(BatchCommand batch, BooleanSupplier action) {
+        List<Order> orders = batch.getTargetOrders();
+        return holdingOrderLocks(orders, 0, () -> {
+            if (eventBus == null) {
+                return action.getAsBoolean();
+            }
+            OrderState[] before = new OrderState[orders.size()];
+            for (int i = 0; i < before.length; i++) {
+                before[i] = orders.get(i).getCurrentState();
+            }
+            eventBus.beginBatch();
+            try {
+                return action.getAsBoolean();
+            } finally {
+                try {
+                    eventBus.endBatch(); // still holding the order locks, so delivery order matches apply order
+                } catch (RuntimeException e) {
+                    for (int i = 0; i < before.length; i++) {
+                        orders.get(i).recoverState(before[i]);
+                    }
+                    throw e;
+                }
+            }
+        });
+    }
+
+    private static boolean holdingOrderLocks(List<Order> orders, int index, BooleanSupplier action) {
+        if (index == orders.size()) {
+            return action.getAsBoolean();
+        }
+        synchronized (orders.get(index)) {
+            return holdingOrderLocks(orders, index + 1, action);
+        }
+    }
+
+    private synchronized void record(Command command) {
+        // A new command discards whatever could have been redone
+        for (int i = applied; i < size; i++) {
+            ring[slot(i)] = null;
+        }
+        size = applied;
+        if (size == ring.length) {
+            archive.append(ring[head].getDescription());
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+        }
+        ring[slot(size)] = command;
+        size++;
+        applied = size;
+    }
+
+    private int slot(int position) {
+        return (head + position) % ring.length;
+    }
+
+    public synchronized boolean undo() {
+        if (applied > 0) {
+            Command command = ring[slot(applied - 1)];
+            if (command instanceof BatchCommand) {
+                BatchCommand batch = (BatchCommand) command;
+                inBatch(batch, () -> {
+                    batch.undo();
+                    return true;
+                });
+            } else {
+                command.undo();
+            }
+            applied--;
+            return true;
+        }
+        System.out.println("❌ Nothing to undo");
+        return false;
+    }
+
+    // A command that fails on redo (e.g. a batch member whose order moved on, so the
+    // batch rolled back) stays undone and redoable
+    public synchronized boolean redo() {
+        if (applied < size) {
+            Command command = ring[slot(applied)];
+            boolean success = command instanceof BatchCommand
+                    ? inBatch((BatchCommand) command, command::execute)
+                    : command.execute();
+            if (!success) {
+                System.out.println("❌ Redo failed: " + command.getDescription());
+                return false;
+            }
+            applied++;
+            return true;
+        }
+        System.out.println("❌ Nothing to redo");
+        return false;
+    }
+
+    // Every command recorded, archived ones included
+    public synchronized long getHistorySize() {
+        return archive.getCount() + size;
+    }
+
+    public synchronized int getUndoableCount() {
+        return applied;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    public CommandHistoryArchive getArchive() {
+        return archive;
+    }
+
+    // Shows the commands still in memory; older ones are paged in with showHistory(page, pageSize)
+    public synchronized void showHistory() {
+        long archived = archive.getCount();
+        showEntries(archived, size, archived);
+    }
+
+    // Page 0 holds the oldest commands
+    public synchronized void showHistory(int page, int pageSize) {
+        showEntries((long) page * pageSize, pageSize, archive.getCount());
+    }
+
+    private void showEntries(long from, int limit, long archived) {
+        System.out.println("\n📋 COMMAND HISTORY:");
+        System.out.println("=".repeat(60));
+
+        long total = archived + size;
+        long end = Math.min(total, from + limit);
+        if (total == 0) {
+            System.out.println("No commands executed yet");
+        } else if (from >= total) {
+            System.out.println("No commands on this page");
+        } else {
+            if (from > 0) {
+                System.out.printf("... %d earlier commands%n", from);
+            }
+            long number = from;
+            for (String description : archive.read(from, (int) Math.min(limit, Math.max(0, archived - from)))) {
+                System.out.printf("✅ %d. %s (archived)%n", ++number, description);
+            }
+            for (long i = Math.max(from, archived); i < end; i++) {
+                int position = (int) (i - archived);
+                String indicator = (position == applied - 1) ? " <- CURRENT" : "";
+                String status = (position < applied) ? "✅" : "❌";
+                System.out.printf("%s %d. %s%s%n", status, i + 1, ring[slot(position)].getDescription(), indicator);
+            }
+            if (end < total) {
+                System.out.printf("... %d later commands%n", total - end);
+            }
+        }
+
+        System.out.println("=".repeat(60));
+    }
+
+    public synchronized void close() {
+        archive.close();
+    }
+}
@@ -0,0 +1,52 @@
+package projects.restaurant;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// ============================================================================
+// CREDIT CARD PAYMENT
+// ============================================================================
+
+class CreditCardPayment implements PaymentStrategy {
+    private final String cardNumber;
+    private final String expiryDate;
+    private final String cvv;
+    private final String cardholderName;
+
+    public CreditCardPayment(String cardNumber, String expiryDate, String cvv, String cardholderName) {
+        this.cardNumber = cardNumber;
+        this.expiryDate = expiryDate;
+        this.cvv = cvv;
+        this.cardholderName = cardholderName;
+    }
+
+    @Override
+    public PaymentResult processPayment(long amountCents, String orderId) {
+        return processPaymentAsync(amountCents, orderId, Runnable::run).join();
+    }
+
+    // The card gateway answers after ~500 ms; no thread is parked while we wait, and the
+    // answer is handled on the payment processor's pool, not the common pool
+    @Override
+    public CompletableFuture<PaymentResult> processPaymentAsync(long amountCents, String orderId, Executor executor) {
+        System.out.println("💳 Processing credit card payment of " + Money.format(amountCents));
+        return CompletableFuture.supplyAsync(this::authorize,
+                CompletableFuture.delayedExecutor(500, TimeUnit.MILLISECONDS, executor));
+    }
+
+    private PaymentResult authorize() {
+        // Simulate occasional payment failure
+        if (Math.random() < 0.1) {
+            return new PaymentResult(false, null, "Card declined", "Credit Card");
+        }
+
+        String transactionId = IdGenerator.getDefault().nextId("CC-");
+        return new PaymentResult(true, transactionId, "Payment successful", "Credit Card");
+    }
+
+    @Override
+    public String getPaymentType() {
+        return "Credit Card";
+    }
+}
@@ -0,0 +1,23 @@
+package projects.restaurant;
+
+// ============================================================================
+// CUSTOMER INFO
+// ============================================================================
+
+class CustomerInfo {
+    private final String customerName;
+    private final String number;
+
+    CustomerInfo(String customerName, String number) {
+        this.customerName = customerName;
+        this.number = number;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+}
@@ -0,0 +1,438 @@
+package projects.restaurant;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+// ============================================================================
+// DELIVERY DISPATCHER - batches READY orders by location and assigns drivers
+// ============================================================================
+
+// Orders that reach READY with a delivery address wait here, keyed by the geohash
+// cell of their address. Every tick (live: on a scheduler thread; simulator: on a
+// virtual clock):
+//   1. stops whose ETA has passed are delivered (IN_TRANSIT -> DELIVERED) and
+//      drivers whose route is finished come back;
+//   2. orders in the same cell are batched up to maxBatchSize, oldest first, and a
+//      full batch leaves at once. Any other order waits for the collection window;
+//      when it runs out the order leaves with the rest of its cell and then the
+//      nearest orders of its parent cell (one geohash character shorter), so
+//      neighbours split by a cell edge still ride together;
+//   3. batches, oldest first, go to free drivers. The whole batch moves READY ->
+//      IN_TRANSIT in one executeBatch; its route visits the nearest stop next.
+// Orders that left READY some other way (picked up by hand, undone) are dropped.
+class DeliveryDispatcher implements OrderObserver, AutoCloseable {
+    private final Geocoder geocoder;
+    private final GeoPoint restaurant;
+    private final LongSupplier clock; // millis
+    private final Predicate<List<Order>> pickUp;   // READY -> IN_TRANSIT, all or nothing
+    private final Predicate<Order> deliver;        // IN_TRANSIT -> DELIVERED
+    private final int precision;
+    private final int maxBatchSize;
+    private final long windowMillis;
+    private final double speedKmPerMinute;
+    private final long stopMillis;
+
+    private final Map<Long, Waiting> waiting = new ConcurrentHashMap<>(); // order number -> waiting order
+    private final Driver[] drivers;
+    private final List<Trip> trips = new ArrayList<>(); // guarded by this
+    private ScheduledExecutorService scheduler;
+
+    // Metrics, guarded by this
+    private final LatencyHistogram readyToDelivered = new LatencyHistogram(); // micros
+    private long tripsStarted;
+    private long ordersDispatched;
+    private long ordersDelivered;
+    private long ordersDropped;
+    private final long startedMillis;
+
+    private DeliveryDispatcher(Builder builder, Predicate<List<Order>> pickUp, Predicate<Order> deliver) {
+        this.geocoder = builder.geocoder != null ? builder.geocoder : new LocalGeocoder(builder.restaurant, 5);
+        this.restaurant = builder.restaurant;
+        this.clock = builder.clock;
+        this.pickUp = pickUp;
+        this.deliver = deliver;
+        this.precision = builder.precision;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.windowMillis = builder.window.toMillis();
+        this.speedKmPerMinute = builder.speedKmh / 60.0;
+        this.stopMillis = builder.stopTime.toMillis();
+        this.drivers = new Driver[builder.drivers];
+        for (int i = 0; i < drivers.length; i++) {
+            drivers[i] = new Driver(i + 1);
+        }
+        this.startedMillis = clock.getAsLong();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public OrderEventInterest getInterest() {
+        return OrderEventInterest.of(OrderEventType.STATUS_CHANGED).onlyStatuses(OrderState.READY);
+    }
+
+    @Override
+    public void onOrderPlaced(Order order) {}
+
+    // Geocodes on the caller's thread (cheap for the local stand-in); a real service
+    // would be called here asynchronously
+    @Override
+    public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        offer(order);
+    }
+
+    @Override
+    public void onOrderCancelled(Order order) {}
+
+    @Override
+    public void onPaymentProcessed(Order order, PaymentResult paymentResult) {}
+
+    // Pickup orders (no delivery address) are not dispatched
+    public boolean offer(Order order) {
+        if (order.getDeliveryAddress().isEmpty()) {
+            return false;
+        }
+        GeoPoint point = geocoder.locate(order.getDeliveryAddress());
+        waiting.putIfAbsent(order.getOrderNumber(),
+                new Waiting(order, point, point.geohash(precision), clock.getAsLong()));
+        return true;
+    }
+
+    public synchronized void start(long tickMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "delivery-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Dispatch tick failed: " + e.getMessage());
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // One dispatch round at the clock's current time; returns the number of trips started
+    public synchronized int tick() {
+        long now = clock.getAsLong();
+        completeStops(now);
+        if (waiting.isEmpty()) {
+            return 0;
+        }
+        List<Driver> free = new ArrayList<>();
+        for (Driver driver : drivers) {
+            if (driver.availableAtMillis <= now) {
+                free.add(driver);
+            }
+        }
+        if (free.isEmpty()) {
+            return 0;
+        }
+        int started = 0;
+        for (List<Waiting> batch : formBatches(now)) {
+            if (started == free.size()) {
+                break;
+            }
+            if (startTrip(free.get(started), batch, now)) {
+                started++;
+            }
+        }
+        return started;
+    }
+
+    private void completeStops(long now) {
+        for (int t = trips.size() - 1; t >= 0; t--) {
+            Trip trip = trips.get(t);
+            while (trip.delivered < trip.stops.size() && trip.etaMillis[trip.delivered] <= now) {
+                Waiting stop = trip.stops.get(trip.delivered++);
+                if (deliver.test(stop.order)) {
+                    ordersDelivered++;
+                    trip.driver.delivered++;
+                    readyToDelivered.record((trip.etaMillis[trip.delivered - 1] - stop.readyAtMillis) * 1_000);
+                }
+            }
+            if (trip.delivered == trip.stops.size() && trip.driver.availableAtMillis <= now) {
+                trips.remove(t);
+            }
+        }
+    }
+
+    private List<List<Waiting>> formBatches(long now) {
+        List<Waiting> all = new ArrayList<>(waiting.values());
+        all.sort(Comparator.comparingLong((Waiting w) -> w.readyAtMillis).thenComparingLong(w -> w.order.getOrderNumber()));
+        Map<String, List<Waiting>> byCell = new LinkedHashMap<>(); // oldest cell first
+        for (Waiting w : all) {
+            if (w.order.getCurrentState() != OrderState.READY) {
+                waiting.remove(w.order.getOrderNumber());
+                ordersDropped++;
+                continue;
+            }
+            byCell.computeIfAbsent(w.cell, k -> new ArrayList<>()).add(w);
+        }
+        List<List<Waiting>> batches = new ArrayList<>();
+        List<Waiting> left = new ArrayList<>();
+        for (List<Waiting> cell : byCell.values()) {
+            int from = 0;
+            for (; cell.size() - from >= maxBatchSize; from += maxBatchSize) {
+                batches.add(cell.subList(from, from + maxBatchSize));
+            }
+            left.addAll(cell.subList(from, cell.size()));
+        }
+        left.sort(Comparator.comparingLong(w -> w.readyAtMillis));
+        // An order whose window has run out leaves now, taking the rest of its cell
+        // and then the nearest orders in its parent cell along
+        for (int i = 0; i < left.size(); i++) {
+            Waiting seed = left.get(i);
+            if (seed == null || now - seed.readyAtMillis < windowMillis) {
+                continue;
+            }
+            List<Waiting> batch = new ArrayList<>(maxBatchSize);
+            batch.add(seed);
+            left.set(i, null);
+            String parent = seed.cell.substring(0, Math.max(1, precision - 1));
+            while (batch.size() < maxBatchSize) {
+                int best = -1;
+                for (int j = i + 1; j < left.size(); j++) {
+                    Waiting candidate = left.get(j);
+                    if (candidate == null || !candidate.cell.startsWith(parent)) {
+                        continue;
+                    }
+                    if (best < 0 || closer(seed, candidate, left.get(best))) {
+                        best = j;
+                    }
+                }
+                if (best < 0) {
+                    break;
+                }
+                batch.add(left.get(best));
+                left.set(best, null);
+            }
+            batches.add(batch);
+        }
+        batches.sort(Comparator.comparingLong(batch -> oldest(batch)));
+        return batches;
+    }
+
+    // Same cell beats parent cell; then distance from the seed
+    private static boolean closer(Waiting seed, Waiting a, Waiting b) {
+        boolean aSameCell = a.cell.equals(seed.cell);
+        if (aSameCell != b.cell.equals(seed.cell)) {
+            return aSameCell;
+        }
+        return seed.point.distanceKm(a.point) < seed.point.distanceKm(b.point);
+    }
+
+    private static long oldest(List<Waiting> batch) {
+        long oldest = Long.MAX_VALUE;
+        for (Waiting w : batch) {
+            oldest = Math.min(oldest, w.readyAtMillis);
+        }
+        return oldest;
+    }
+
+    private boolean startTrip(Driver driver, List<Waiting> batch, long now) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (Waiting w : batch) {
+            orders.add(w.order);
+        }
+        if (!pickUp.test(orders)) {
+            return false; // an order changed state under us; it is dropped on the next round
+        }
+        List<Waiting> route = route(batch);
+        long[] eta = new long[route.size()];
+        GeoPoint at = restaurant;
+        long time = now;
+        for (int i = 0; i < route.size(); i++) {
+            time += driveMillis(at, route.get(i).point) + stopMillis;
+            eta[i] = time;
+            at = route.get(i).point;
+            waiting.remove(route.get(i).order.getOrderNumber());
+        }
+        time += driveMillis(at, restaurant);
+        driver.busyMillis += time - now;
+        driver.availableAtMillis = time;
+        driver.trips++;
+        trips.add(new Trip(driver, route, eta));
+        tripsStarted++;
+        ordersDispatched += route.size();
+        return true;
+    }
+
+    // Nearest stop next, starting from the restaurant
+    private List<Waiting> route(List<Waiting> batch) {
+        List<Waiting> left = new ArrayList<>(batch);
+        List<Waiting> route = new ArrayList<>(batch.size());
+        GeoPoint at = restaurant;
+        while (!left.isEmpty()) {
+            int nearest = 0;
+            for (int i = 1; i < left.size(); i++) {
+                if (at.distanceKm(left.get(i).point) < at.distanceKm(left.get(nearest).point)) {
+                    nearest = i;
+                }
+            }
+            Waiting next = left.remove(nearest);
+            route.add(next);
+            at = next.point;
+        }
+        return route;
+    }
+
+    private long driveMillis(GeoPoint from, GeoPoint to) {
+        return (long) (from.distanceKm(to) / speedKmPerMinute * 60_000);
+    }
+
+    // ------------------------------------------------------------------------
+    // Metrics
+    // ------------------------------------------------------------------------
+
+    public int getWaiting() { return waiting.size(); }
+    public synchronized long getTripsStarted() { return tripsStarted; }
+    public synchronized long getOrdersDispatched() { return ordersDispatched; }
+    public synchronized long getOrdersDelivered() { return ordersDelivered; }
+    public synchronized long getOrdersDropped() { return ordersDropped; }
+
+    public synchronized double getAverageBatchSize() {
+        return tripsStarted == 0 ? 0 : ordersDispatched / (double) tripsStarted;
+    }
+
+    // Deliveries per hour a driver spends on the road
+    public synchronized double getOrdersPerDriverHour() {
+        long now = clock.getAsLong();
+        long busy = 0;
+        for (Driver driver : drivers) {
+            busy += driver.busyMillis - Math.max(0, driver.availableAtMillis - now); // minus the rest of a trip under way
+        }
+        return busy == 0 ? 0 : ordersDelivered / (busy / 3_600_000.0);
+    }
+
+    // Ready to delivered, microseconds of clock time
+    public synchronized LatencyHistogram getReadyToDelivered() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(readyToDelivered);
+        return copy;
+    }
+
+    public synchronized void printReport() {
+        long elapsed = clock.getAsLong() - startedMillis;
+        System.out.println("\n🚚 DELIVERY DISPATCH");
+        System.out.println("=".repeat(60));
+        System.out.printf("Drivers: %d   Waiting: %d   Trips: %d   Avg batch: %.2f%n",
+                drivers.length, waiting.size(), tripsStarted, getAverageBatchSize());
+        System.out.printf("Dispatched: %d   Delivered: %d   Dropped: %d%n", ordersDispatched, ordersDelivered, ordersDropped);
+        System.out.printf("Orders per driver-hour on the road: %.2f%n", getOrdersPerDriverHour());
+        System.out.printf("Ready -> delivered: p50 %s  p99 %s%n",
+                StateLatencyTracker.formatMicros(readyToDelivered.getValueAtPercentile(50)),
+                StateLatencyTracker.formatMicros(readyToDelivered.getValueAtPercentile(99)));
+        for (Driver driver : drivers) {
+            System.out.printf("  Driver %-3d trips %5d  delivered %6d  on the road %5.1f%%%n", driver.id, driver.trips,
+                    driver.delivered, elapsed <= 0 ? 0 : Math.min(100, 100.0 * driver.busyMillis / elapsed));
+        }
+        System.out.println("=".repeat(60));
+    }
+
+    @Override
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Waiting {
+        final Order order;
+        final GeoPoint point;
+        final String cell;
+        final long readyAtMillis;
+
+        Waiting(Order order, GeoPoint point, String cell, long readyAtMillis) {
+            this.order = order;
+            this.point = point;
+            this.cell = cell;
+            this.readyAtMillis = readyAtMillis;
+        }
+    }
+
+    private static final class Driver {
+        final int id;
+        long availableAtMillis; // back at the restaurant
+        long busyMillis;
+        int trips;
+        int delivered;
+
+        Driver(int id) {
+            this.id = id;
+        }
+    }
+
+    private static final class Trip {
+        final Driver driver;
+        final List<Waiting> stops;
+        final long[] etaMillis;
+        int delivered;
+
+        Trip(Driver driver, List<Waiting> stops, long[] etaMillis) {
+            this.driver = driver;
+            this.stops = stops;
+            this.etaMillis = etaMillis;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Builder
+    // ------------------------------------------------------------------------
+
+    static class Builder {
+        private GeoPoint restaurant = new GeoPoint(40.7128, -74.0060);
+        private Geocoder geocoder;
+        private LongSupplier clock = System::currentTimeMillis;
+        private int drivers = 4;
+        private int maxBatchSize = 3;
+        private Duration window = Duration.ofMinutes(3);
+        private int precision = 6;
+        private double speedKmh = 25;
+        private Duration stopTime = Duration.ofMinutes(3);
+
+        public Builder restaurant(GeoPoint restaurant) { this.restaurant = restaurant; return this; }
+        public Builder geocoder(Geocoder geocoder) { this.geocoder = geocoder; return this; }
+        public Builder clock(LongSupplier clockMillis) { this.clock = clockMillis; return this; }
+        public Builder drivers(int drivers) { this.drivers = drivers; return this; }
+        // 1 turns batching off: every order is its own trip
+        public Builder maxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; return this; }
+        // How long a partial batch may wait for more orders in its area
+        public Builder window(Duration window) { this.window = window; return this; }
+        public Builder geohashPrecision(int precision) { this.precision = precision; return this; }
+        public Builder speedKmh(double speedKmh) { this.speedKmh = speedKmh; return this; }
+        public Builder stopTime(Duration stopTime) { this.stopTime = stopTime; return this; }
+
+        public DeliveryDispatcher build(Predicate<List<Order>> pickUp, Predicate<Order> deliver) {
+            if (drivers <= 0 || maxBatchSize <= 0 || precision < 1 || precision > 12) {
+                throw new IllegalStateException("Dispatch needs drivers, a batch size and a geohash precision of 1-12");
+            }
+            return new DeliveryDispatcher(this, pickUp, deliver);
+        }
+    }
+}
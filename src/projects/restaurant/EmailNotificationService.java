@@ -0,0 +1,88 @@
+package projects.restaurant;
+
+// ============================================================================
+// EMAIL NOTIFICATIONS
+// ============================================================================
+
+// Email notification service
+class EmailNotificationService implements OrderObserver {
+    private final String serviceName = "Email Service";
+
+    @Override
+    public void onOrderPlaced(Order order) {
+        if (!order.getEmail().isEmpty()) {
+            String subject = "Order Confirmation - " + order.getOrderId();
+            String message = String.format(
+                    "Dear %s,\n\nThank you for your order!\n\nOrder Details:\n- Order ID: %s\n- Total: %s\n- Items: %d\n\nWe'll keep you updated on your order status.\n\nBest regards,\nRestaurant Team",
+                    order.getCustomerInfo().getCustomerName(),
+                    order.getOrderId(),
+                    Money.format(order.getTotalCents()),
+                    order.itemCount()
+            );
+            sendEmail(order.getEmail(), subject, message);
+        }
+    }
+
+    @Override
+    public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        if (!order.getEmail().isEmpty()) {
+            String subject = "Order Update - " + order.getOrderId();
+            String message = createStatusUpdateMessage(order, previousStatus, newStatus);
+            sendEmail(order.getEmail(), subject, message);
+        }
+    }
+
+    @Override
+    public void onOrderCancelled(Order order) {
+        if (!order.getEmail().isEmpty()) {
+            String subject = "Order Cancelled - " + order.getOrderId();
+            String message = String.format(
+                    "Dear %s,\n\nYour order %s has been cancelled.\n\nIf payment was processed, a refund will be issued within 3-5 business days.\n\nWe apologize for any inconvenience.\n\nBest regards,\nRestaurant Team",
+                    order.getCustomerInfo().getCustomerName(),
+                    order.getOrderId()
+            );
+            sendEmail(order.getEmail(), subject, message);
+        }
+    }
+
+    @Override
+    public void onPaymentProcessed(Order order, PaymentResult paymentResult) {
+        if (!order.getEmail().isEmpty() && paymentResult.isSuccess()) {
+            String subject = "Payment Confirmation - " + order.getOrderId();
+            String message = String.format(
+                    "Dear %s,\n\nPayment processed successfully!\n\n- Amount: %s\n- Method: %s\n- Transaction ID: %s\n\nYour order is now being prepared.\n\nBest regards,\nRestaurant Team",
+                    order.getCustomerInfo().getCustomerName(),
+                    Money.format(order.getTotalCents()),
+                    paymentResult.getPaymentMethod(),
+                    paymentResult.getTransactionId()
+            );
+            sendEmail(order.getEmail(), subject, message);
+        }
+    }
+
+    private String createStatusUpdateMessage(Order order, OrderState previousStatus, OrderState newStatus) {
+        String customerName = order.getCustomerInfo().getCustomerName();
+        String orderId = order.getOrderId();
+
+        switch (newStatus) {
+            case CONFIRMED:
+                return String.format("Dear %s,\n\nGreat news! Your order %s has been confirmed and is being prepared by our kitchen staff.\n\nEstimated preparation time: 15-20 minutes.\n\nBest regards,\nRestaurant Team", customerName, orderId);
+            case PREPARING:
+                return String.format("Dear %s,\n\nYour order %s is now being prepared by our experienced chefs.\n\nWe'll notify you when it's ready for delivery.\n\nBest regards,\nRestaurant Team", customerName, orderId);
+            case READY:
+                return String.format("Dear %s,\n\nYour order %s is ready! Our delivery driver will be on the way shortly.\n\nThank you for your patience.\n\nBest regards,\nRestaurant Team", customerName, orderId);
+            case IN_TRANSIT:
+                return String.format("Dear %s,\n\nYour order %s is on its way!\n\nExpected delivery time: 10-15 minutes.\n\nBest regards,\nRestaurant Team", customerName, orderId);
+            case DELIVERED:
+                return String.format("Dear %s,\n\nYour order %s has been delivered!\n\nWe hope you enjoy your meal. Please rate your experience in our app.\n\nBest regards,\nRestaurant Team", customerName, orderId);
+            default:
+                return String.format("Dear %s,\n\nYour order %s status has been updated to %s.\n\nBest regards,\nRestaurant Team", customerName, orderId, newStatus);
+        }
+    }
+
+    private void sendEmail(String email, String subject, String message) {
+        System.out.printf("📧 [%s] Email sent to %s%n", serviceName, email);
+        System.out.printf("   Subject: %s%n", subject);
+        System.out.printf("   Preview: %s...%n", message.substring(0, Math.min(60, message.length())));
+    }
+}
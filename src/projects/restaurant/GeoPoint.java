@@ -0,0 +1,57 @@
+package projects.restaurant;
+
+// ============================================================================
+// GEO POINT - latitude/longitude with geohash and distance
+// ============================================================================
+
+final class GeoPoint {
+    static final double EARTH_RADIUS_KM = 6371.0;
+
+    final double lat;
+    final double lon;
+
+    GeoPoint(double lat, double lon) {
+        this.lat = lat;
+        this.lon = lon;
+    }
+
+    // Equirectangular approximation; exact enough within a city
+    double distanceKm(GeoPoint other) {
+        double x = Math.toRadians(other.lon - lon) * Math.cos(Math.toRadians((lat + other.lat) / 2));
+        double y = Math.toRadians(other.lat - lat);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_KM;
+    }
+
+    // Standard base-32 geohash; 6 characters is a cell of about 1.2 x 0.6 km
+    String geohash(int precision) {
+        final String base32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean even = true;
+        int bits = 0;
+        int value = 0;
+        while (hash.length() < precision) {
+            if (even) {
+                double mid = (minLon + maxLon) / 2;
+                value = (value << 1) | (lon >= mid ? 1 : 0);
+                if (lon >= mid) minLon = mid; else maxLon = mid;
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                value = (value << 1) | (lat >= mid ? 1 : 0);
+                if (lat >= mid) minLat = mid; else maxLat = mid;
+            }
+            even = !even;
+            if (++bits == 5) {
+                hash.append(base32.charAt(value));
+                bits = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%.5f, %.5f)", lat, lon);
+    }
+}
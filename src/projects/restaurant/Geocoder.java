@@ -0,0 +1,10 @@
+package projects.restaurant;
+
+// ============================================================================
+// GEOCODING - delivery addresses to coordinates
+// ============================================================================
+
+// Turns a delivery address into a point on the map
+interface Geocoder {
+    GeoPoint locate(String address);
+}
@@ -0,0 +1,135 @@
+package projects.restaurant;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// ============================================================================
+// SNOWFLAKE-STYLE ID GENERATOR - order numbers and payment transaction IDs
+// ============================================================================
+
+// 64-bit, time-ordered IDs:
+//   [ 41 bits: millis since EPOCH | 10 bits: node id | 12 bits: sequence ]
+// Lock-free: the last (timestamp, sequence) pair lives in one AtomicLong and is
+// advanced with CAS. When 4096 IDs are issued in one millisecond (or the clock
+// steps backwards) the sequence simply carries into the timestamp bits, i.e. we
+// borrow from the next millisecond instead of waiting, so IDs stay unique and
+// increasing. Borrowing is capped at MAX_BORROW_MILLIS ahead of the wall clock;
+// past that nextId() waits for the clock to catch up. Across restarts, recovery
+// calls advancePast(highest recovered id) so IDs issued ahead of the clock by the
+// previous run are never reissued; across processes each process needs a distinct
+// node id (-Drestaurant.nodeId=N).
+class IdGenerator {
+    static final long EPOCH_MILLIS = 1735689600000L; // 2025-01-01T00:00:00Z
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    static final long MAX_BORROW_MILLIS = 50;
+
+    // Crockford base32: no I, L, O, U; 13 characters cover 64 bits and sort like the number
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        java.util.Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+    }
+
+    private static final IdGenerator DEFAULT = new IdGenerator(Integer.getInteger("restaurant.nodeId", 0));
+
+    private final long nodeBits;
+    // (millis since EPOCH << SEQUENCE_BITS) | sequence of the last issued ID
+    private final AtomicLong lastState = new AtomicLong();
+
+    IdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    public static IdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    public long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long nowMillis = System.currentTimeMillis() - EPOCH_MILLIS;
+            long now = nowMillis << SEQUENCE_BITS;
+            long next = now > last ? now : last + 1;
+            if ((next >>> SEQUENCE_BITS) - nowMillis > MAX_BORROW_MILLIS) {
+                LockSupport.parkNanos(100_000); // out of borrowed time: let the clock catch up
+                continue;
+            }
+            if (lastState.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << TIMESTAMP_SHIFT) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    // Never issue an ID at or below this one's (timestamp, sequence) again; called
+    // with the highest order number recovered from the event log or a snapshot
+    public void advancePast(long id) {
+        long state = ((id >>> TIMESTAMP_SHIFT) << SEQUENCE_BITS) | (id & SEQUENCE_MASK);
+        lastState.accumulateAndGet(state, Math::max);
+    }
+
+    // e.g. nextId("ORD-") -> "ORD-01J9ZQ3K7W000"
+    public String nextId(String prefix) {
+        return encode(prefix, nextId());
+    }
+
+    // Single char[] fill + one String allocation, no format parsing
+    public static String encode(String prefix, long id) {
+        int prefixLength = prefix.length();
+        char[] chars = new char[prefixLength + ENCODED_LENGTH];
+        prefix.getChars(0, prefixLength, chars, 0);
+        for (int i = chars.length - 1; i >= prefixLength; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    public static String encode(long id) {
+        return encode("", id);
+    }
+
+    // Accepts an encoded ID with or without a prefix such as "ORD-"
+    public static long decode(String encoded) {
+        int start = encoded.length() - ENCODED_LENGTH;
+        if (start < 0) {
+            throw new IllegalArgumentException("Not an encoded id: " + encoded);
+        }
+        long id = 0;
+        for (int i = start; i < encoded.length(); i++) {
+            char c = encoded.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Not an encoded id: " + encoded);
+            }
+            id = (id << 5) | value;
+        }
+        return id;
+    }
+
+    public static long timestampMillis(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS;
+    }
+
+    public static int nodeId(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    public static int sequence(long id) {
+        return (int) (id & SEQUENCE_MASK);
+    }
+}
@@ -0,0 +1,449 @@
+package projects.restaurant;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// ============================================================================
+// KITCHEN SCHEDULER - station tasks for PREPARING orders
+// ============================================================================
+
+// When an order enters PREPARING it is split into one task per order item, routed
+// to a station (pizza oven, grill, drinks, ...) by the item's menu category. Each
+// station has a fixed number of workers; every worker owns a priority heap ordered
+// by the order's promised time (earliest first), and a worker whose heap is empty
+// steals the most urgent task of its busiest sibling. New tasks go to the worker
+// with the shortest heap. A station-wide semaphore counts queued tasks, so idle
+// workers sleep instead of spinning and a wake-up always finds work somewhere.
+// When the last task of an order finishes, the ready handler advances it to READY;
+// it declines if the order is no longer PREPARING (manual processing and undo win).
+//
+// Cooking is simulated: a task keeps its worker busy for the station's prep time
+// per item times the quantity. Queue wait (enqueued -> started) goes into a
+// LatencyHistogram per station; utilization is busy time over worker time.
+class KitchenScheduler implements OrderObserver, AutoCloseable {
+    static final Duration DEFAULT_PROMISE = Duration.ofMinutes(30);
+
+    private final List<Station> stations;
+    private final Map<String, Station> stationsByCategory; // folded category name -> station
+    private final Station catchAll;
+    private final Supplier<MenuCatalog> menu;
+    private final Predicate<Order> readyHandler;
+    private final long promiseNanos;
+    private final Map<Long, Ticket> tickets = new ConcurrentHashMap<>(); // order number -> unfinished ticket
+    private final AtomicLong sequence = new AtomicLong(); // FIFO among equal promises
+    private final AtomicLong ordersReady = new AtomicLong();
+    private final AtomicLong ordersDropped = new AtomicLong();
+    private final long startedNanos = System.nanoTime();
+    private volatile boolean running = true;
+
+    private KitchenScheduler(Builder builder, Supplier<MenuCatalog> menu, Predicate<Order> readyHandler) {
+        this.menu = menu;
+        this.readyHandler = readyHandler;
+        this.promiseNanos = builder.promise.toNanos();
+        this.stations = new ArrayList<>();
+        this.stationsByCategory = new HashMap<>();
+        Station fallback = null;
+        for (StationSpec spec : builder.specs) {
+            Station station = new Station(spec.name, spec.workers, spec.prepTimePerItem.toNanos());
+            stations.add(station);
+            for (String category : spec.categories) {
+                stationsByCategory.put(MenuCatalog.fold(category), station);
+            }
+            if (spec.categories.length == 0 && fallback == null) {
+                fallback = station;
+            }
+        }
+        this.catchAll = fallback != null ? fallback : stations.get(stations.size() - 1);
+        for (Station station : stations) {
+            station.start();
+        }
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    // Oven, grill and drinks for the demo menu, plus a prep station for everything else
+    static Builder defaultKitchen() {
+        return builder()
+                .station("Pizza oven", 2, Duration.ofMinutes(8), "Pizza")
+                .station("Grill", 2, Duration.ofMinutes(5), "Burgers")
+                .station("Drinks", 1, Duration.ofSeconds(30), "Beverages")
+                .station("Prep", 1, Duration.ofMinutes(3));
+    }
+
+    @Override
+    public OrderEventInterest getInterest() {
+        return OrderEventInterest.of(OrderEventType.STATUS_CHANGED).onlyStatuses(OrderState.PREPARING);
+    }
+
+    @Override
+    public void onOrderPlaced(Order order) {}
+
+    // Called with the order's lock held: only enqueues
+    @Override
+    public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        schedule(order);
+    }
+
+    @Override
+    public void onOrderCancelled(Order order) {}
+
+    @Override
+    public void onPaymentProcessed(Order order, PaymentResult paymentResult) {}
+
+    // Queues the order's tasks unless it already has unfinished ones (e.g. an undo
+    // followed by a redo); returns false in that case or once closed
+    public boolean schedule(Order order) {
+        if (!running) {
+            return false;
+        }
+        List<OrderItem> items = order.getOrderItems();
+        Ticket ticket = new Ticket(order, items.size());
+        if (tickets.putIfAbsent(order.getOrderNumber(), ticket) != null) {
+            return false;
+        }
+        long placed = order.getStateEnteredAtNanos(OrderState.PENDING);
+        long promisedAt = (placed != 0 ? placed : System.nanoTime()) + promiseNanos; // recovered orders: from now
+        MenuCatalog catalog = menu.get();
+        for (OrderItem item : items) {
+            Station station = stationFor(catalog, item.getMenuItem());
+            station.submit(new Task(ticket, item, promisedAt, sequence.getAndIncrement()));
+        }
+        return true;
+    }
+
+    // The item's own category if it is on the current menu, else the category of the
+    // menu item with the same name (orders built before a reload), else the catch-all
+    private Station stationFor(MenuCatalog catalog, MenuItem item) {
+        MenuCatalog.Category category = catalog.getCategoryOf(item);
+        if (category == null) {
+            MenuItem current = catalog.findItem(item.getName());
+            category = current != null ? catalog.getCategoryOf(current) : null;
+        }
+        Station station = category != null ? stationsByCategory.get(MenuCatalog.fold(category.getName())) : null;
+        return station != null ? station : catchAll;
+    }
+
+    private void finished(Task task) {
+        Ticket ticket = task.ticket;
+        if (ticket.remaining.decrementAndGet() > 0) {
+            return;
+        }
+        tickets.remove(ticket.order.getOrderNumber(), ticket);
+        try {
+            if (readyHandler.test(ticket.order)) {
+                ordersReady.incrementAndGet();
+            } else {
+                ordersDropped.incrementAndGet(); // advanced by hand or undone meanwhile
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Kitchen could not mark order " + ticket.order.getOrderId() + " ready: " + e.getMessage());
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Metrics
+    // ------------------------------------------------------------------------
+
+    public List<Station> getStations() {
+        return stations;
+    }
+
+    public Station getStation(String name) {
+        for (Station station : stations) {
+            if (station.name.equalsIgnoreCase(name)) {
+                return station;
+            }
+        }
+        return null;
+    }
+
+    // How long the most recently started task waited, for the busiest station that
+    // still has a queue; 0 when nothing is waiting. A cheap, current overload signal.
+    public long getCurrentQueueWaitMicros() {
+        long wait = 0;
+        for (Station station : stations) {
+            if (station.getQueued() > 0) {
+                wait = Math.max(wait, station.lastWaitMicros);
+            }
+        }
+        return wait;
+    }
+
+    public int getOrdersInKitchen() { return tickets.size(); }
+    public long getOrdersReady() { return ordersReady.get(); }
+    public long getOrdersDropped() { return ordersDropped.get(); }
+
+    public void printReport() {
+        long elapsed = System.nanoTime() - startedNanos;
+        System.out.println("\n👨‍🍳 KITCHEN STATIONS");
+        System.out.println("=".repeat(88));
+        System.out.printf("%-12s %7s %8s %7s %7s %6s %9s %9s %9s %9s%n", "Station", "Workers", "Tasks", "Queued",
+                "Steals", "Util", "wait p50", "wait p99", "wait p999", "wait max");
+        for (Station station : stations) {
+            LatencyHistogram wait = station.queueWait;
+            System.out.printf("%-12s %7d %8d %7d %7d %5.1f%% %9s %9s %9s %9s%n", station.name, station.workers.length,
+                    station.getCompleted(), station.getQueued(), station.getSteals(), station.getUtilization(elapsed) * 100,
+                    StateLatencyTracker.formatMicros(wait.getValueAtPercentile(50)),
+                    StateLatencyTracker.formatMicros(wait.getValueAtPercentile(99)),
+                    StateLatencyTracker.formatMicros(wait.getValueAtPercentile(99.9)),
+                    StateLatencyTracker.formatMicros(wait.getMax()));
+        }
+        System.out.printf("Orders in kitchen: %d, marked ready: %d, dropped (no longer preparing): %d%n",
+                getOrdersInKitchen(), getOrdersReady(), getOrdersDropped());
+        System.out.println("=".repeat(88));
+    }
+
+    // Stops the workers; tasks still queued are abandoned and their orders stay PREPARING
+    @Override
+    public void close() {
+        running = false;
+        for (Station station : stations) {
+            station.stop();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Stations, workers and tasks
+    // ------------------------------------------------------------------------
+
+    private static final class Ticket {
+        final Order order;
+        final AtomicInteger remaining;
+
+        Ticket(Order order, int tasks) {
+            this.order = order;
+            this.remaining = new AtomicInteger(tasks);
+        }
+    }
+
+    private static final class Task implements Comparable<Task> {
+        final Ticket ticket;
+        final OrderItem item;
+        final long promisedAtNanos;
+        final long sequence;
+        long enqueuedAtNanos;
+
+        Task(Ticket ticket, OrderItem item, long promisedAtNanos, long sequence) {
+            this.ticket = ticket;
+            this.item = item;
+            this.promisedAtNanos = promisedAtNanos;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPromise = Long.compare(promisedAtNanos, other.promisedAtNanos);
+            return byPromise != 0 ? byPromise : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    class Station {
+        private final String name;
+        private final long prepNanosPerItem;
+        private final Worker[] workers;
+        private final Semaphore queued = new Semaphore(0); // one permit per task in any heap
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong steals = new AtomicLong();
+        private final AtomicInteger nextWorker = new AtomicInteger();
+        private volatile long lastWaitMicros;
+
+        private Station(String name, int workerCount, long prepNanosPerItem) {
+            this.name = name;
+            this.prepNanosPerItem = prepNanosPerItem;
+            this.workers = new Worker[workerCount];
+            for (int i = 0; i < workerCount; i++) {
+                workers[i] = new Worker(this, i);
+            }
+        }
+
+        private void start() {
+            for (Worker worker : workers) {
+                worker.thread.start();
+            }
+        }
+
+        private void stop() {
+            for (Worker worker : workers) {
+                worker.thread.interrupt();
+            }
+            for (Worker worker : workers) {
+                try {
+                    worker.thread.join(TimeUnit.SECONDS.toMillis(5));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        // Shortest heap, scanning from a rotating start so ties spread out
+        private void submit(Task task) {
+            int start = Math.floorMod(nextWorker.getAndIncrement(), workers.length);
+            Worker target = workers[start];
+            for (int i = 1; i < workers.length && target.size > 0; i++) {
+                Worker candidate = workers[(start + i) % workers.length];
+                if (candidate.size < target.size) {
+                    target = candidate;
+                }
+            }
+            task.enqueuedAtNanos = System.nanoTime();
+            target.push(task);
+            queued.release();
+        }
+
+        // The caller holds a permit, so some heap has a task for it; other permit
+        // holders may take it first, in which case look again
+        private Task take(Worker self) {
+            while (true) {
+                Task task = self.poll();
+                if (task != null) {
+                    return task;
+                }
+                Worker victim = null;
+                for (Worker worker : workers) {
+                    if (worker != self && (victim == null || worker.size > victim.size)) {
+                        victim = worker;
+                    }
+                }
+                task = victim != null ? victim.poll() : null;
+                if (task != null) {
+                    steals.incrementAndGet();
+                    return task;
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        public String getName() { return name; }
+        public int getWorkerCount() { return workers.length; }
+        public long getCompleted() { return completed.get(); }
+        public long getSteals() { return steals.get(); }
+        public int getQueued() { return queued.availablePermits(); }
+        public LatencyHistogram getQueueWait() { return queueWait; }
+
+        // Fraction of worker time spent cooking since the kitchen opened
+        public double getUtilization() {
+            return getUtilization(System.nanoTime() - startedNanos);
+        }
+
+        private double getUtilization(long elapsedNanos) {
+            long busy = 0;
+            for (Worker worker : workers) {
+                busy += worker.busyNanos.get();
+            }
+            return elapsedNanos <= 0 ? 0 : Math.min(1.0, busy / ((double) elapsedNanos * workers.length));
+        }
+    }
+
+    private final class Worker {
+        private final Station station;
+        private final PriorityQueue<Task> heap = new PriorityQueue<>(); // guarded by this
+        private volatile int size;
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final Thread thread;
+
+        Worker(Station station, int index) {
+            this.station = station;
+            this.thread = new Thread(this::run, "kitchen-" + station.name.toLowerCase().replace(' ', '-') + "-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        synchronized void push(Task task) {
+            heap.add(task);
+            size = heap.size();
+        }
+
+        synchronized Task poll() {
+            Task task = heap.poll();
+            size = heap.size();
+            return task;
+        }
+
+        private void run() {
+            while (running) {
+                try {
+                    station.queued.acquire();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                Task task = station.take(this);
+                long started = System.nanoTime();
+                long waitMicros = (started - task.enqueuedAtNanos) / 1_000;
+                station.queueWait.record(waitMicros);
+                station.lastWaitMicros = waitMicros;
+                long cookNanos = station.prepNanosPerItem * task.item.getQuantity();
+                long deadline = started + cookNanos;
+                for (long left = cookNanos; left > 0 && running; left = deadline - System.nanoTime()) {
+                    LockSupport.parkNanos(left);
+                }
+                busyNanos.addAndGet(System.nanoTime() - started);
+                if (!running) {
+                    return;
+                }
+                station.completed.incrementAndGet();
+                finished(task);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Builder
+    // ------------------------------------------------------------------------
+
+    private static final class StationSpec {
+        final String name;
+        final int workers;
+        final Duration prepTimePerItem;
+        final String[] categories;
+
+        StationSpec(String name, int workers, Duration prepTimePerItem, String[] categories) {
+            this.name = name;
+            this.workers = workers;
+            this.prepTimePerItem = prepTimePerItem;
+            this.categories = categories;
+        }
+    }
+
+    static class Builder {
+        private final List<StationSpec> specs = new ArrayList<>();
+        private Duration promise = DEFAULT_PROMISE;
+
+        // A station with no categories takes every item no other station claims;
+        // without one, the last station does
+        public Builder station(String name, int workers, Duration prepTimePerItem, String... categories) {
+            if (workers <= 0) {
+                throw new IllegalArgumentException("Station " + name + " needs at least one worker");
+            }
+            specs.add(new StationSpec(name, workers, prepTimePerItem, categories.clone()));
+            return this;
+        }
+
+        // Promised ready time, counted from placement; tasks are served earliest promise first
+        public Builder promise(Duration promise) {
+            this.promise = promise;
+            return this;
+        }
+
+        public KitchenScheduler build(Supplier<MenuCatalog> menu, Predicate<Order> readyHandler) {
+            if (specs.isEmpty()) {
+                throw new IllegalStateException("Kitchen has no stations");
+            }
+            return new KitchenScheduler(this, menu, readyHandler);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package projects.restaurant;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// ============================================================================
+// LATENCY HISTOGRAM - log-linear buckets in one primitive array
+// ============================================================================
+
+// HdrHistogram-style recorder for durations in microseconds. Values below 64 get a
+// bucket each; above that every power of two is split into 32 linear sub-buckets,
+// so any recorded value is reported within ~3% (1/32) of its true value. Values
+// above MAX_MICROS (about 19 hours) are clamped. Recording is one atomic increment;
+// percentiles are computed by a single pass over the ~1000 counts.
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;     // 64
+    private static final int HALF = SUB_BUCKETS / 2;                  // 32
+    static final long MAX_MICROS = (1L << 36) - 1;
+    private static final int BUCKETS = indexFor(MAX_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long micros) {
+        counts.getAndIncrement(indexFor(Math.max(0, Math.min(micros, MAX_MICROS))));
+    }
+
+    static int indexFor(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1); // value >>> shift is in [32, 64)
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) ((value >>> shift) - HALF);
+    }
+
+    // Largest value that lands in the bucket, as HdrHistogram reports it
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF + HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.getAndAdd(i, count);
+            }
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    // e.g. 50, 99, 99.9; 0 when nothing has been recorded
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return highestValueAt(i);
+            }
+        }
+        return highestValueAt(BUCKETS - 1);
+    }
+
+    public long getMax() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highestValueAt(i);
+            }
+        }
+        return 0;
+    }
+
+    static int getBucketCount() {
+        return BUCKETS;
+    }
+}
@@ -0,0 +1,55 @@
+package projects.restaurant;
+
+import java.util.Random;
+
+// ============================================================================
+// LOCAL GEOCODER
+// ============================================================================
+
+// Stand-in for a geocoding service: "<number> <street>" is placed on a street whose
+// position and direction are derived from the street name's hash, within radiusKm
+// of the restaurant, 15 m per house number along it. Deterministic, so the same
+// street always lands in the same neighbourhood. Anything unparseable maps to the
+// restaurant itself.
+class LocalGeocoder implements Geocoder {
+    private static final double METERS_PER_HOUSE_NUMBER = 15;
+
+    private final GeoPoint origin;
+    private final double radiusKm;
+
+    LocalGeocoder(GeoPoint origin, double radiusKm) {
+        this.origin = origin;
+        this.radiusKm = radiusKm;
+    }
+
+    @Override
+    public GeoPoint locate(String address) {
+        String text = address.trim();
+        int space = text.indexOf(' ');
+        int number;
+        try {
+            number = space > 0 ? Integer.parseInt(text.substring(0, space)) : 0;
+        } catch (NumberFormatException e) {
+            number = 0;
+            space = -1;
+        }
+        String street = MenuCatalog.fold(text.substring(space + 1));
+        if (street.isEmpty()) {
+            return origin;
+        }
+        Random random = new Random(street.hashCode());
+        double startKm = radiusKm * Math.sqrt(random.nextDouble()); // uniform over the disc
+        double startAngle = random.nextDouble() * 2 * Math.PI;
+        double direction = random.nextDouble() * 2 * Math.PI;
+        double alongKm = number * METERS_PER_HOUSE_NUMBER / 1000.0;
+        double eastKm = startKm * Math.cos(startAngle) + alongKm * Math.cos(direction);
+        double northKm = startKm * Math.sin(startAngle) + alongKm * Math.sin(direction);
+        return offset(eastKm, northKm);
+    }
+
+    private GeoPoint offset(double eastKm, double northKm) {
+        double lat = origin.lat + Math.toDegrees(northKm / GeoPoint.EARTH_RADIUS_KM);
+        double lon = origin.lon + Math.toDegrees(eastKm / (GeoPoint.EARTH_RADIUS_KM * Math.cos(Math.toRadians(origin.lat))));
+        return new GeoPoint(lat, lon);
+    }
+}
@@ -0,0 +1,244 @@
+package projects.restaurant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// ============================================================================
+// MENU CATALOG - immutable, indexed menu with stable item IDs
+// ============================================================================
+
+// Every item gets a numeric ID that never changes for as long as the item (same
+// brand, same name) stays on the menu: rebuilding the catalog from the previous one
+// reuses IDs, whatever order items and categories come in. Items live in a dense
+// array indexed by ID, so lookup by ID is one array read; names (case-folded, per
+// brand) and categories go through hash maps; category membership is an int[] of
+// item IDs. A catalog never changes after build(), so it is shared by any number
+// of threads without locking and swapped as a whole when the menu changes.
+class MenuCatalog {
+    static final String DEFAULT_BRAND = "Restaurant";
+
+    private final MenuItem[] itemsById;          // null where an ID is not (or no longer) used
+    private final int[] categoryOfItem;          // index into categories, -1 for unused IDs
+    private final List<Category> categories;     // in insertion order
+    private final Map<String, Map<String, Integer>> idsByBrand; // brand (folded and as registered) -> folded name -> ID
+    private final Map<String, Integer> defaultBrandIds;
+    private final Map<String, Map<String, Category>> categoriesByBrand; // brand -> category name (folded and as registered)
+    private final int itemCount;
+
+    private MenuCatalog(Builder builder) {
+        this.itemsById = Arrays.copyOf(builder.itemsById, builder.nextId);
+        this.categoryOfItem = new int[itemsById.length];
+        Arrays.fill(categoryOfItem, -1);
+        List<Category> built = new ArrayList<>(builder.members.size());
+        Map<String, Map<String, Category>> byBrand = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : builder.members.entrySet()) {
+            String[] brandAndName = builder.categoryNames.get(entry.getKey());
+            int[] ids = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            Category category = new Category(built.size(), brandAndName[0], brandAndName[1], ids);
+            for (int id : ids) {
+                categoryOfItem[id] = category.index;
+            }
+            built.add(category);
+            Map<String, Category> brandCategories = byBrand.computeIfAbsent(fold(category.brand), k -> new HashMap<>());
+            brandCategories.put(fold(category.name), category);
+            brandCategories.put(category.name, category);
+        }
+        this.categories = Collections.unmodifiableList(built);
+        this.categoriesByBrand = byBrand;
+        int count = 0;
+        for (Map<String, Integer> ids : builder.idsByBrand.values()) {
+            count += ids.size();
+        }
+        this.itemCount = count;
+        this.idsByBrand = new HashMap<>(builder.idsByBrand);
+        for (Map.Entry<String, String> alias : builder.brandSpellings.entrySet()) {
+            idsByBrand.put(alias.getKey(), idsByBrand.get(alias.getValue())); // "Brand 7" skips folding
+        }
+        for (Map.Entry<String, String> alias : builder.brandSpellings.entrySet()) {
+            categoriesByBrand.put(alias.getKey(), categoriesByBrand.get(alias.getValue()));
+        }
+        this.defaultBrandIds = idsByBrand.getOrDefault(fold(DEFAULT_BRAND), Map.of());
+    }
+
+    static Builder builder() {
+        return new Builder(null);
+    }
+
+    // IDs of items that are still on the menu carry over from the previous catalog
+    static Builder builder(MenuCatalog previous) {
+        return new Builder(previous);
+    }
+
+    // Case folding for lookups: "QUATTRO stagioni" finds "Quattro Stagioni". Both calls
+    // return the same string when nothing changes, so folded input allocates nothing.
+    static String fold(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String brand, String name) {
+        return fold(brand) + '\u001F' + fold(name);
+    }
+
+    // Exact spelling first (no allocation), then the case-folded form
+    private static <V> V lookup(Map<String, V> map, String name) {
+        V value = map.get(name);
+        return value != null ? value : map.get(fold(name));
+    }
+
+    // ------------------------------------------------------------------------
+    // Lookups
+    // ------------------------------------------------------------------------
+
+    public MenuItem getItem(int id) {
+        return id >= 0 && id < itemsById.length ? itemsById[id] : null;
+    }
+
+    public MenuItem findItem(String name) {
+        return find(defaultBrandIds, name);
+    }
+
+    public MenuItem findItem(String brand, String name) {
+        return find(lookup(idsByBrand, brand), name);
+    }
+
+    private MenuItem find(Map<String, Integer> ids, String name) {
+        Integer id = ids != null ? ids.get(fold(name)) : null;
+        return id != null ? itemsById[id] : null;
+    }
+
+    public Category getCategory(String name) {
+        return getCategory(DEFAULT_BRAND, name);
+    }
+
+    public Category getCategory(String brand, String name) {
+        Map<String, Category> brandCategories = lookup(categoriesByBrand, brand);
+        return brandCategories != null ? lookup(brandCategories, name) : null;
+    }
+
+    public Category getCategoryOf(MenuItem item) {
+        int id = item.getId();
+        return id >= 0 && id < categoryOfItem.length && itemsById[id] == item ? categories.get(categoryOfItem[id]) : null;
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public int size() {
+        return itemCount;
+    }
+
+    // One past the highest ID in use; IDs of removed items are never handed out again
+    public int idLimit() {
+        return itemsById.length;
+    }
+
+    public void display() {
+        for (Category category : categories) {
+            System.out.println("\n" + category.getName().toUpperCase() + ":");
+            int[] ids = category.itemIds;
+            for (int i = 0; i < ids.length; i++) {
+                System.out.printf("  %d. %s%n", i + 1, itemsById[ids[i]]);
+            }
+        }
+    }
+
+    // A named group of item IDs within one brand, in menu order
+    class Category {
+        private final int index;
+        private final String brand;
+        private final String name;
+        private final int[] itemIds;
+
+        private Category(int index, String brand, String name, int[] itemIds) {
+            this.index = index;
+            this.brand = brand;
+            this.name = name;
+            this.itemIds = itemIds;
+        }
+
+        public String getBrand() { return brand; }
+        public String getName() { return name; }
+        public int size() { return itemIds.length; }
+
+        public int getItemId(int position) {
+            return itemIds[position];
+        }
+
+        // 1-based, as printed by display(); null when out of range
+        public MenuItem getItem(int itemNumber) {
+            return itemNumber >= 1 && itemNumber <= itemIds.length ? itemsById[itemIds[itemNumber - 1]] : null;
+        }
+
+        public int[] getItemIds() {
+            return itemIds.clone();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Builder
+    // ------------------------------------------------------------------------
+
+    static class Builder {
+        private final MenuCatalog previous;
+        private MenuItem[] itemsById;
+        private int nextId;
+        private final Map<String, Map<String, Integer>> idsByBrand = new HashMap<>();
+        private final Map<String, String> brandSpellings = new HashMap<>(); // as registered -> folded
+        private final Map<String, List<Integer>> members = new LinkedHashMap<>();
+        private final Map<String, String[]> categoryNames = new HashMap<>();
+
+        private Builder(MenuCatalog previous) {
+            this.previous = previous;
+            this.nextId = previous != null ? previous.itemsById.length : 0;
+            this.itemsById = new MenuItem[Math.max(16, nextId)];
+        }
+
+        public Builder addItem(String category, String name, String description, long priceCents) {
+            return addItem(DEFAULT_BRAND, category, name, description, priceCents);
+        }
+
+        // Item names are unique within a brand
+        public Builder addItem(String brand, String category, String name, String description, long priceCents) {
+            String itemKey = fold(name);
+            Map<String, Integer> brandIds = idsByBrand.computeIfAbsent(fold(brand), k -> new HashMap<>());
+            brandSpellings.putIfAbsent(brand, fold(brand));
+            if (brandIds.containsKey(itemKey)) {
+                throw new IllegalStateException("Duplicate menu item '" + name + "' for brand " + brand);
+            }
+            Map<String, Integer> previousIds = previous != null ? previous.idsByBrand.get(fold(brand)) : null;
+            Integer previousId = previousIds != null ? previousIds.get(itemKey) : null;
+            int id = previousId != null ? previousId : nextId++;
+            if (id >= itemsById.length) {
+                itemsById = Arrays.copyOf(itemsById, Math.max(id + 1, itemsById.length * 2));
+            }
+            MenuItem previousItem = previousId != null ? previous.itemsById[id] : null;
+            itemsById[id] = previousItem != null && previousItem.sameAs(name, description, priceCents)
+                    ? previousItem // unchanged items keep their identity
+                    : MenuItem.withId(id, name, description, priceCents);
+            brandIds.put(itemKey, id);
+
+            String categoryKey = key(brand, category);
+            categoryNames.putIfAbsent(categoryKey, new String[] {brand, category});
+            members.computeIfAbsent(categoryKey, k -> new ArrayList<>()).add(id);
+            return this;
+        }
+
+        public Builder addCategory(String brand, MenuCategory category) {
+            for (MenuItem item : category.getMenuItems()) {
+                addItem(brand, category.getName(), item.getName(), item.getDescription(), item.getAmountCents());
+            }
+            return this;
+        }
+
+        public MenuCatalog build() {
+            return new MenuCatalog(this);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package projects.restaurant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// ============================================================================
+// MENU CATEGORY
+// ============================================================================
+
+// Items are held in an immutable list that addMenuItem replaces (menus change
+// rarely, reads are constant), so readers get it without a copy.
+class MenuCategory {
+    private final String name;
+    private volatile List<MenuItem> menuItems = List.of();
+
+    MenuCategory(String name) {
+        this.name = name;
+    }
+
+    public synchronized void addMenuItem(MenuItem item) {
+        List<MenuItem> items = new ArrayList<>(menuItems);
+        items.add(item);
+        menuItems = List.copyOf(items);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Read-only; never copied
+    public List<MenuItem> getMenuItems() {
+        return menuItems;
+    }
+
+    // 1-based, as shown by displayItems(); null when out of range
+    public MenuItem getMenuItem(int itemNumber) {
+        List<MenuItem> items = menuItems;
+        return itemNumber >= 1 && itemNumber <= items.size() ? items.get(itemNumber - 1) : null;
+    }
+
+    public int itemCount() {
+        return menuItems.size();
+    }
+
+    public void displayItems() {
+        List<MenuItem> items = menuItems;
+        System.out.println("\n" + name.toUpperCase() + ":");
+        for (int i = 0; i < items.size(); i++) {
+            System.out.printf("  %d. %s%n", i + 1, items.get(i));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package projects.restaurant;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// ============================================================================
+// MENU FILE - plain-text menu definition
+// ============================================================================
+
+// One item per line, fields separated by '|':
+//
+//   # comment
+//   [Brand Name]                      <- items below belong to this brand
+//   Category | Name | Description | 12.99
+//
+// Items before the first [brand] line belong to MenuCatalog.DEFAULT_BRAND. Prices
+// are decimals converted to cents with banker's rounding. Any malformed line fails
+// the whole file, so a bad edit never publishes a partial menu.
+final class MenuFile {
+    static final String DEFAULT_MENU = String.join("\n",
+            "# Demo menu",
+            "[" + MenuCatalog.DEFAULT_BRAND + "]",
+            "Pizza     | Margherita       | Classic tomato and mozzarella | 12.99",
+            "Pizza     | Pepperoni        | Pepperoni with cheese         | 14.99",
+            "Pizza     | Quattro Stagioni | Four seasons pizza            | 16.99",
+            "Burgers   | Cheeseburger     | Beef with cheese              | 9.99",
+            "Burgers   | Chicken Burger   | Grilled chicken               | 8.99",
+            "Burgers   | Veggie Burger    | Plant-based patty             | 10.99",
+            "Beverages | Coca Cola        | Refreshing cola               | 2.99",
+            "Beverages | Water            | Bottled water                 | 1.99",
+            "Beverages | Orange Juice     | Fresh squeezed                | 4.99");
+
+    private MenuFile() {
+    }
+
+    // Items still on the menu keep their IDs (and, if unchanged, their MenuItem) from previous
+    static MenuCatalog load(Path file, MenuCatalog previous) {
+        try {
+            return parse(Files.readAllLines(file, StandardCharsets.UTF_8), file.getFileName().toString(), previous);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read menu file " + file, e);
+        }
+    }
+
+    static MenuCatalog parse(List<String> lines, String source, MenuCatalog previous) {
+        MenuCatalog.Builder builder = previous != null ? MenuCatalog.builder(previous) : MenuCatalog.builder();
+        String brand = MenuCatalog.DEFAULT_BRAND;
+        int items = 0;
+        for (int number = 1; number <= lines.size(); number++) {
+            String line = lines.get(number - 1).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("[") && line.endsWith("]")) {
+                brand = line.substring(1, line.length() - 1).trim();
+                continue;
+            }
+            String[] fields = line.split("\\|", -1);
+            if (fields.length != 4) {
+                throw new IllegalStateException(source + ":" + number
+                        + ": expected 'Category | Name | Description | Price' but got: " + line);
+            }
+            long priceCents;
+            try {
+                priceCents = Money.ofDecimal(fields[3]);
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalStateException(source + ":" + number + ": invalid price '" + fields[3].trim() + "'");
+            }
+            if (priceCents < 0 || fields[0].isBlank() || fields[1].isBlank()) {
+                throw new IllegalStateException(source + ":" + number + ": category, name and a non-negative price are required");
+            }
+            try {
+                builder.addItem(brand, fields[0].trim(), fields[1].trim(), fields[2].trim(), priceCents);
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException(source + ":" + number + ": " + e.getMessage());
+            }
+            items++;
+        }
+        if (items == 0) {
+            throw new IllegalStateException(source + ": menu has no items");
+        }
+        return builder.build();
+    }
+}
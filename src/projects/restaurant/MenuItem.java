@@ -0,0 +1,63 @@
+package projects.restaurant;
+
+// ============================================================================
+// MENU ITEM - a dish with a stable catalog ID and an exact price
+// ============================================================================
+
+class MenuItem {
+    static final int NO_ID = -1;
+
+    private final int id; // stable catalog ID, NO_ID for items made outside a MenuCatalog
+    private final String name;
+    private final String description;
+    private final long amountCents;
+
+    // Decimal price as written on the menu, e.g. 12.99
+    MenuItem(String name, String description, double amount) {
+        this(NO_ID, name, description, Money.ofDecimal(amount));
+    }
+
+    private MenuItem(int id, String name, String description, long amountCents) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.amountCents = amountCents;
+    }
+
+    static MenuItem ofCents(String name, String description, long amountCents) {
+        return new MenuItem(NO_ID, name, description, amountCents);
+    }
+
+    static MenuItem withId(int id, String name, String description, long amountCents) {
+        return new MenuItem(id, name, description, amountCents);
+    }
+
+    boolean sameAs(String name, String description, long amountCents) {
+        return this.amountCents == amountCents && this.name.equals(name) && this.description.equals(description);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public double getAmount() {
+        return Money.toDecimal(amountCents);
+    }
+
+    @Override
+    public String toString() {
+        return name + " - " + Money.format(amountCents);
+    }
+}
@@ -0,0 +1,626 @@
+package projects.restaurant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// ============================================================================
+// MENU SEARCH INDEX - autocomplete and typo-tolerant search over a MenuCatalog
+// ============================================================================
+
+// Every item's name, description and category name are split into case-folded
+// words (terms); description and category words weigh less than name words.
+// Each term has a postings list of the items containing it, stored as ints:
+// (item ID << 1) | 1 when the word is in the name, | 0 when only in the description,
+// kept sorted so an item's posting is found by binary search when it changes.
+//
+//   - Autocomplete walks a character trie of all terms: the node for the typed
+//     prefix is found in O(prefix length), then its subtree is visited breadth
+//     first (shortest completions first) until enough items are collected.
+//   - Fuzzy search finds candidate terms through a trigram inverted index
+//     ("$ma", "mar", "arg", ...), keeps those within 1-2 edits of the query
+//     word, and ranks items by how many query words they match and how well.
+//
+// Scoring uses per-thread scratch arrays indexed by item and term ID, so a query
+// allocates little beyond its result list. update() re-indexes only the items
+// whose MenuItem changed between two catalogs (unchanged items keep their
+// identity across MenuCatalog rebuilds). Queries take a read lock, updates a
+// write lock.
+class MenuSearchIndex {
+    private static final float NAME_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.4f;
+    private static final float PREFIX_SIMILARITY = 0.85f;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private MenuCatalog catalog;
+
+    // Terms
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<IntList> postings = new ArrayList<>();
+    private final Map<Long, IntList> termsByTrigram = new HashMap<>();
+
+    // Items: the MenuItem (and category) each ID was indexed from, and its term IDs (for removal)
+    private MenuItem[] indexedItems = new MenuItem[0];
+    private String[] indexedCategories = new String[0];
+    private int[][] termsOfItem = new int[0][];
+
+    // Trie over terms: node 0 is the root; children are a linked list of siblings
+    private char[] label = new char[1024];
+    private int[] firstChild = new int[1024];
+    private int[] nextSibling = new int[1024];
+    private int[] termAt = new int[1024];
+    private int nodeCount = 1;
+
+    MenuSearchIndex(MenuCatalog catalog) {
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        Arrays.fill(termAt, -1);
+        update(catalog);
+    }
+
+    // Re-indexes the items that were added, removed or changed; returns how many
+    public int update(MenuCatalog next) {
+        lock.writeLock().lock();
+        try {
+            int limit = next.idLimit();
+            if (limit > indexedItems.length) {
+                indexedItems = Arrays.copyOf(indexedItems, limit);
+                indexedCategories = Arrays.copyOf(indexedCategories, limit);
+                termsOfItem = Arrays.copyOf(termsOfItem, limit);
+            }
+            int changed = 0;
+            for (int id = 0; id < indexedItems.length; id++) {
+                MenuItem item = next.getItem(id);
+                String category = item != null ? next.getCategoryOf(item).getName() : null;
+                if (item == indexedItems[id] && (item == null || category.equals(indexedCategories[id]))) {
+                    continue;
+                }
+                if (indexedItems[id] != null) {
+                    unindex(id);
+                }
+                if (item != null) {
+                    index(id, item, category);
+                }
+                changed++;
+            }
+            this.catalog = next;
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(int id, MenuItem item, String category) {
+        Set<String> nameWords = words(item.getName());
+        Set<String> descriptionWords = words(item.getDescription());
+        descriptionWords.addAll(words(category));
+        descriptionWords.removeAll(nameWords);
+        int[] itemTerms = new int[nameWords.size() + descriptionWords.size()];
+        int n = 0;
+        for (String word : nameWords) {
+            itemTerms[n] = termId(word);
+            postings.get(itemTerms[n++]).insertSorted(id << 1 | 1);
+        }
+        for (String word : descriptionWords) {
+            itemTerms[n] = termId(word);
+            postings.get(itemTerms[n++]).insertSorted(id << 1);
+        }
+        indexedItems[id] = item;
+        indexedCategories[id] = category;
+        termsOfItem[id] = itemTerms;
+    }
+
+    private void unindex(int id) {
+        for (int term : termsOfItem[id]) {
+            postings.get(term).removeItem(id);
+        }
+        indexedItems[id] = null;
+        indexedCategories[id] = null;
+        termsOfItem[id] = null;
+    }
+
+    // Terms are never removed; a term whose items are all gone just has empty postings
+    private int termId(String word) {
+        Integer id = termIds.get(word);
+        if (id != null) {
+            return id;
+        }
+        int term = terms.size();
+        termIds.put(word, term);
+        terms.add(word);
+        postings.add(new IntList());
+        for (long trigram : trigrams(word)) {
+            termsByTrigram.computeIfAbsent(trigram, k -> new IntList()).add(term);
+        }
+        insertIntoTrie(word, term);
+        return term;
+    }
+
+    private void insertIntoTrie(String word, int term) {
+        int node = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            int child = firstChild[node];
+            while (child != -1 && label[child] != c) {
+                child = nextSibling[child];
+            }
+            if (child == -1) {
+                child = newNode(c);
+                nextSibling[child] = firstChild[node];
+                firstChild[node] = child;
+            }
+            node = child;
+        }
+        termAt[node] = term;
+    }
+
+    private int newNode(char c) {
+        if (nodeCount == label.length) {
+            int size = label.length * 2;
+            label = Arrays.copyOf(label, size);
+            firstChild = Arrays.copyOf(firstChild, size);
+            nextSibling = Arrays.copyOf(nextSibling, size);
+            termAt = Arrays.copyOf(termAt, size);
+            Arrays.fill(firstChild, nodeCount, size, -1);
+            Arrays.fill(nextSibling, nodeCount, size, -1);
+            Arrays.fill(termAt, nodeCount, size, -1);
+        }
+        label[nodeCount] = c;
+        return nodeCount++;
+    }
+
+    private int findNode(String prefix) {
+        int node = 0;
+        for (int i = 0; i < prefix.length() && node != -1; i++) {
+            char c = prefix.charAt(i);
+            int child = firstChild[node];
+            while (child != -1 && label[child] != c) {
+                child = nextSibling[child];
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    // ------------------------------------------------------------------------
+    // Autocomplete: earlier words must match exactly, the last one is a prefix.
+    // Items whose name has the completion come first, then description matches.
+    // ------------------------------------------------------------------------
+
+    public List<MenuItem> autocomplete(String text, int limit) {
+        List<String> words = new ArrayList<>(words(text));
+        List<MenuItem> results = new ArrayList<>();
+        if (words.isEmpty() || limit <= 0) {
+            return results;
+        }
+        lock.readLock().lock();
+        try {
+            Scratch scratch = SCRATCH.get().prepare(indexedItems.length, terms.size());
+            int required = words.size() - 1;
+            for (int w = 0; w < required; w++) {
+                Integer term = termIds.get(words.get(w));
+                if (term == null) {
+                    scratch.clear();
+                    return results;
+                }
+                IntList list = postings.get(term);
+                for (int i = 0; i < list.size; i++) {
+                    int item = list.values[i] >>> 1;
+                    if (scratch.matched[item] == w) { // matched every earlier word
+                        if (w == 0) {
+                            scratch.touch(item);
+                        }
+                        scratch.matched[item] = w + 1;
+                    }
+                }
+            }
+            int node = findNode(words.get(required));
+            if (node == -1) {
+                scratch.clear();
+                return results;
+            }
+            for (int pass = 1; pass >= 0 && results.size() < limit; pass--) {
+                collectCompletions(node, pass, required, limit, scratch, results);
+            }
+            scratch.clear();
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Breadth-first over the trie below node: shorter completions first
+    private void collectCompletions(int node, int nameFlag, int required, int limit, Scratch scratch, List<MenuItem> results) {
+        int[] queue = scratch.queue;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = node;
+        while (head < tail && results.size() < limit) {
+            int current = queue[head++];
+            if (termAt[current] != -1) {
+                IntList list = postings.get(termAt[current]);
+                for (int i = 0; i < list.size && results.size() < limit; i++) {
+                    int posting = list.values[i];
+                    int item = posting >>> 1;
+                    if ((posting & 1) == nameFlag && scratch.matched[item] == required && !scratch.returned[item]) {
+                        scratch.returned[item] = true;
+                        if (required == 0) {
+                            scratch.touch(item); // otherwise already touched by the required words
+                        }
+                        results.add(indexedItems[item]);
+                    }
+                }
+            }
+            for (int child = firstChild[current]; child != -1; child = nextSibling[child]) {
+                if (tail == queue.length) {
+                    queue = scratch.queue = Arrays.copyOf(queue, queue.length * 2);
+                }
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Ranked, typo-tolerant search
+    // ------------------------------------------------------------------------
+
+    public List<MenuItem> search(String query, int limit) {
+        List<String> words = new ArrayList<>(words(query));
+        if (words.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Scratch scratch = SCRATCH.get().prepare(indexedItems.length, terms.size());
+            for (int w = 0; w < words.size(); w++) {
+                matchWord(words.get(w), w == words.size() - 1, scratch);
+                // Fold this word's best match per item into the totals
+                for (int t = 0; t < scratch.wordTouchedCount; t++) {
+                    int item = scratch.wordTouched[t];
+                    scratch.total[item] += scratch.wordBest[item];
+                    scratch.matched[item]++;
+                    scratch.wordBest[item] = 0;
+                }
+                scratch.wordTouchedCount = 0;
+            }
+            List<MenuItem> results = topItems(scratch, limit);
+            scratch.clear();
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void matchWord(String word, boolean last, Scratch scratch) {
+        Integer exact = termIds.get(word);
+        if (exact != null) {
+            score(exact, 1.0f, scratch);
+        }
+        if (last && word.length() >= 2) {
+            int node = findNode(word);
+            int found = 0;
+            int[] queue = scratch.queue;
+            int head = 0;
+            int tail = 0;
+            if (node != -1) {
+                queue[tail++] = node;
+            }
+            while (head < tail && found < MAX_PREFIX_TERMS) {
+                int current = queue[head++];
+                if (termAt[current] != -1 && current != node) {
+                    score(termAt[current], PREFIX_SIMILARITY, scratch);
+                    found++;
+                }
+                for (int child = firstChild[current]; child != -1; child = nextSibling[child]) {
+                    if (tail == queue.length) {
+                        queue = scratch.queue = Arrays.copyOf(queue, queue.length * 2);
+                    }
+                    queue[tail++] = child;
+                }
+            }
+        }
+        int maxEdits = word.length() <= 3 ? 0 : word.length() <= 6 ? 1 : 2;
+        if (maxEdits == 0) {
+            return;
+        }
+        // Terms sharing enough trigrams with the word, then verified by edit distance
+        long[] grams = trigrams(word);
+        for (long gram : grams) {
+            IntList candidates = termsByTrigram.get(gram);
+            if (candidates == null) {
+                continue;
+            }
+            for (int i = 0; i < candidates.size; i++) {
+                int term = candidates.values[i];
+                if (scratch.termHits[term]++ == 0) {
+                    scratch.touchTerm(term);
+                }
+            }
+        }
+        for (int t = 0; t < scratch.termTouchedCount; t++) {
+            int term = scratch.termTouched[t];
+            int shared = scratch.termHits[term];
+            scratch.termHits[term] = 0;
+            String candidate = terms.get(term);
+            if (term == (exact != null ? exact : -1) || Math.abs(candidate.length() - word.length()) > maxEdits
+                    || shared < grams.length - 3 * maxEdits) {
+                continue; // each edit destroys at most 3 trigrams
+            }
+            int distance = editDistance(word, candidate, maxEdits);
+            if (distance <= maxEdits) {
+                score(term, 1.0f - 0.25f * distance, scratch);
+            }
+        }
+        scratch.termTouchedCount = 0;
+    }
+
+    private void score(int term, float similarity, Scratch scratch) {
+        IntList list = postings.get(term);
+        for (int i = 0; i < list.size; i++) {
+            int posting = list.values[i];
+            int item = posting >>> 1;
+            float value = similarity * ((posting & 1) != 0 ? NAME_WEIGHT : DESCRIPTION_WEIGHT);
+            if (scratch.wordBest[item] == 0) {
+                scratch.wordTouched[scratch.wordTouchedCount++] = item;
+                if (scratch.matched[item] == 0 && scratch.total[item] == 0) {
+                    scratch.touch(item);
+                }
+            }
+            if (value > scratch.wordBest[item]) {
+                scratch.wordBest[item] = value;
+            }
+        }
+    }
+
+    // Most query words matched first, then best total score, then the shorter name
+    private List<MenuItem> topItems(Scratch scratch, int limit) {
+        int[] best = new int[Math.min(limit, scratch.touchedCount)];
+        int size = 0;
+        for (int t = 0; t < scratch.touchedCount; t++) {
+            int item = scratch.touched[t];
+            if (size < best.length) {
+                best[size++] = item;
+                siftUp(best, size - 1, scratch);
+            } else if (better(item, best[0], scratch)) {
+                best[0] = item;
+                siftDown(best, size, scratch);
+            }
+        }
+        // best is a min-heap on rank; drain it worst-first
+        MenuItem[] ordered = new MenuItem[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ordered[i] = indexedItems[best[0]];
+            best[0] = best[i];
+            siftDown(best, i, scratch);
+        }
+        return new ArrayList<>(Arrays.asList(ordered));
+    }
+
+    private boolean better(int a, int b, Scratch scratch) {
+        if (scratch.matched[a] != scratch.matched[b]) {
+            return scratch.matched[a] > scratch.matched[b];
+        }
+        if (scratch.total[a] != scratch.total[b]) {
+            return scratch.total[a] > scratch.total[b];
+        }
+        int lengthA = indexedItems[a].getName().length();
+        int lengthB = indexedItems[b].getName().length();
+        return lengthA != lengthB ? lengthA < lengthB : a < b;
+    }
+
+    private void siftUp(int[] heap, int i, Scratch scratch) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!better(heap[parent], heap[i], scratch)) {
+                break;
+            }
+            int tmp = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = tmp;
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size, Scratch scratch) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            int worst = i;
+            if (left < size && better(heap[worst], heap[left], scratch)) {
+                worst = left;
+            }
+            if (left + 1 < size && better(heap[worst], heap[left + 1], scratch)) {
+                worst = left + 1;
+            }
+            if (worst == i) {
+                return;
+            }
+            int tmp = heap[worst];
+            heap[worst] = heap[i];
+            heap[i] = tmp;
+            i = worst;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------------
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public MenuCatalog getCatalog() {
+        lock.readLock().lock();
+        try {
+            return catalog;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Case-folded words of letters and digits, in order, without duplicates
+    static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = MenuCatalog.fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // "$word$" sliced into overlapping three-character windows, packed into longs
+    static long[] trigrams(String word) {
+        String padded = "$" + word + "$";
+        long[] grams = new long[Math.max(1, padded.length() - 2)];
+        for (int i = 0; i < grams.length; i++) {
+            long gram = 0;
+            for (int j = i; j < Math.min(i + 3, padded.length()); j++) {
+                gram = gram << 16 | padded.charAt(j);
+            }
+            grams[i] = gram;
+        }
+        return grams;
+    }
+
+    // Damerau-Levenshtein (adjacent transpositions), giving up once it exceeds max
+    static int editDistance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    // Growable int array; postings and trigram lists
+    static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // Appending is the common case: items are indexed in ID order
+        void insertSorted(int value) {
+            if (size == 0 || values[size - 1] < value) {
+                add(value);
+                return;
+            }
+            int at = -Arrays.binarySearch(values, 0, size, value) - 1;
+            add(0);
+            System.arraycopy(values, at, values, at + 1, size - 1 - at);
+            values[at] = value;
+        }
+
+        // Removes the posting of an item, whichever field flag it carries
+        void removeItem(int item) {
+            int at = Arrays.binarySearch(values, 0, size, item << 1);
+            if (at < 0) {
+                at = -at - 1;
+            }
+            if (at < size && values[at] >>> 1 == item) {
+                System.arraycopy(values, at + 1, values, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    // Per-thread scoring state, sized to the index and reset after every query
+    private static final class Scratch {
+        float[] total = new float[0];
+        float[] wordBest = new float[0];
+        int[] matched = new int[0];
+        boolean[] returned = new boolean[0];
+        int[] touched = new int[0];
+        int touchedCount;
+        int[] wordTouched = new int[0];
+        int wordTouchedCount;
+        int[] termHits = new int[0];
+        int[] termTouched = new int[0];
+        int termTouchedCount;
+        int[] queue = new int[256];
+
+        Scratch prepare(int items, int termCount) {
+            if (total.length < items) {
+                total = new float[items];
+                wordBest = new float[items];
+                matched = new int[items];
+                returned = new boolean[items];
+                touched = new int[items];
+                wordTouched = new int[items];
+            }
+            if (termHits.length < termCount) {
+                termHits = new int[termCount];
+                termTouched = new int[termCount];
+            }
+            return this;
+        }
+
+        void touch(int item) {
+            touched[touchedCount++] = item;
+        }
+
+        void touchTerm(int term) {
+            termTouched[termTouchedCount++] = term;
+        }
+
+        void clear() {
+            for (int t = 0; t < touchedCount; t++) {
+                int item = touched[t];
+                total[item] = 0;
+                matched[item] = 0;
+                returned[item] = false;
+            }
+            touchedCount = 0;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package projects.restaurant;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// ============================================================================
+// MENU WATCHER - reloads the menu when its file changes
+// ============================================================================
+
+// Polls the menu file's modification time and size on a daemon thread and calls
+// SimpleRestaurant.reloadMenu once they have changed and then held still for a
+// whole poll interval, so a file being rewritten in place is not loaded half
+// written. Writers that replace the file with an atomic rename are picked up the
+// same way, one poll later. Polling (rather than a WatchService) behaves the same
+// on every file system, including network mounts. A file that fails to parse is
+// reported and skipped; the current menu stays in place until the next good
+// version appears.
+class MenuWatcher implements AutoCloseable {
+    private final SimpleRestaurant restaurant;
+    private final Path file;
+    private ScheduledExecutorService scheduler;
+    private long loadedModifiedMillis = -1; // attributes of the version last loaded
+    private long loadedSize = -1;
+    private long seenModifiedMillis = -1;   // and of the last poll
+    private long seenSize = -1;
+
+    private volatile long reloads;
+    private volatile long failedReloads;
+
+    MenuWatcher(SimpleRestaurant restaurant, Path file) {
+        this.restaurant = restaurant;
+        this.file = file;
+    }
+
+    // Loads the file now; attributes are read first, so an edit racing the load
+    // shows up as a change on a later poll
+    public synchronized void start(long pollMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        long[] attributes = readAttributes();
+        restaurant.reloadMenu(file);
+        if (attributes != null) {
+            loadedModifiedMillis = seenModifiedMillis = attributes[0];
+            loadedSize = seenSize = attributes[1];
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "menu-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Also callable directly (e.g. from an admin endpoint) to force a check
+    public synchronized boolean poll() {
+        long[] attributes = readAttributes();
+        if (attributes == null) {
+            return false; // mid-replace or deleted: try again next poll
+        }
+        long modified = attributes[0];
+        long size = attributes[1];
+        if (modified == loadedModifiedMillis && size == loadedSize) {
+            seenModifiedMillis = modified;
+            seenSize = size;
+            return false;
+        }
+        if (modified != seenModifiedMillis || size != seenSize) {
+            seenModifiedMillis = modified; // still changing: wait until it holds still
+            seenSize = size;
+            return false;
+        }
+        loadedModifiedMillis = modified;
+        loadedSize = size;
+        try {
+            restaurant.reloadMenu(file);
+            reloads++;
+            return true;
+        } catch (RuntimeException e) {
+            failedReloads++;
+            System.err.println("❌ Menu reload failed, keeping current menu: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // {modified millis, size}, or null if the file cannot be read right now
+    private long[] readAttributes() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new long[] {attributes.lastModifiedTime().toMillis(), attributes.size()};
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public long getReloads() { return reloads; }
+    public long getFailedReloads() { return failedReloads; }
+    public Path getFile() { return file; }
+
+    @Override
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package projects.restaurant;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// ============================================================================
+// MONEY - exact amounts as long cents
+// ============================================================================
+
+// Every amount in the system is a primitive long number of cents, so sums and
+// products are exact and allocation-free. Decimal input (menu prices typed as
+// 12.99) is converted once with banker's rounding (HALF_EVEN), as is any division;
+// arithmetic throws ArithmeticException on overflow instead of wrapping.
+final class Money {
+    private static final long CENTS_PER_UNIT = 100;
+
+    private Money() {
+    }
+
+    // 12.99 -> 1299; goes through the decimal string of the double, so 0.1 + 0.2 style noise never leaks in
+    static long ofDecimal(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    static long ofDecimal(String amount) {
+        return new BigDecimal(amount.trim()).setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    static long plus(long cents, long otherCents) {
+        return Math.addExact(cents, otherCents);
+    }
+
+    static long times(long cents, long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    // cents * numerator / denominator, rounded half-even (e.g. averages, percentage discounts)
+    static long scale(long cents, long numerator, long denominator) {
+        long product = Math.multiplyExact(cents, numerator);
+        long quotient = product / denominator;
+        long remainder = product % denominator;
+        if (remainder != 0) {
+            long twice = Math.abs(remainder) * 2;
+            long divisor = Math.abs(denominator);
+            boolean negative = (product < 0) != (denominator < 0);
+            if (twice > divisor || (twice == divisor && (quotient & 1) != 0)) {
+                quotient += negative ? -1 : 1;
+            }
+        }
+        return quotient;
+    }
+
+    // For display and external APIs only; never used for arithmetic
+    static double toDecimal(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    // 1299 -> "$12.99", -5 -> "-$0.05"
+    static String format(long cents) {
+        long units = Math.abs(cents / CENTS_PER_UNIT);
+        long fraction = Math.abs(cents % CENTS_PER_UNIT);
+        return (cents < 0 ? "-$" : "$") + units + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
@@ -0,0 +1,312 @@
+package projects.restaurant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// ============================================================================
+// ENHANCED ORDER CLASS - Now extends OrderSubject for Observer pattern
+// ============================================================================
+
+class Order extends OrderSubject {
+    private final long orderNumber;
+    private final String orderId;
+    private final List<OrderItem> orderItems;
+    private final CustomerInfo customerInfo;
+    private final String email;
+    private final String deliveryAddress;
+    private final String specialInstructions;
+    private final PaymentStrategy paymentStrategy;
+    private final String channel; // where the order came from (web, app, phone, ...); not persisted
+    private final long totalCents; // items never change after build, so computed once
+    private volatile OrderState currentState;
+    private volatile PaymentResult paymentResult;
+    private volatile long storeSequence; // stamped by OrderManager each time the order is stored
+    // System.nanoTime() at which the order last entered each state, 0 if it never did
+    // (or was recovered from disk); guarded by the order's lock
+    private final long[] stateEnteredAtNanos = new long[OrderState.values().length];
+
+    private Order(Builder builder) {
+        this(builder, IdGenerator.getDefault().nextId(), OrderState.PENDING, null);
+        this.stateEnteredAtNanos[OrderState.PENDING.ordinal()] = System.nanoTime();
+    }
+
+    // Recovery path: rebuilds a logged order with its original number, state and payment
+    private Order(Builder builder, long orderNumber, OrderState state, PaymentResult paymentResult) {
+        this.orderNumber = orderNumber;
+        this.orderId = IdGenerator.encode("ORD-", orderNumber);
+        this.orderItems = List.copyOf(builder.orderItems);
+        this.customerInfo = builder.customerInfo;
+        this.email = builder.email;
+        this.deliveryAddress = builder.deliveryAddress;
+        this.specialInstructions = builder.specialInstructions;
+        this.paymentStrategy = builder.paymentStrategy;
+        this.channel = builder.channel;
+        long total = 0;
+        for (OrderItem item : orderItems) {
+            total = Money.plus(total, item.getTotalPriceCents());
+        }
+        this.totalCents = total;
+        this.currentState = state;
+        this.paymentResult = paymentResult;
+    }
+
+    // Builder Pattern (same as previous phases)
+    public static class Builder {
+        private CustomerInfo customerInfo;
+        private List<OrderItem> orderItems = new ArrayList<>();
+        private String email = "";
+        private String deliveryAddress = "";
+        private String specialInstructions = "";
+        private PaymentStrategy paymentStrategy;
+        private String channel = AdmissionController.DEFAULT_CHANNEL;
+        private MenuCatalog menu; // snapshot used by addItem(id / name); null for hand-built orders
+
+        public Builder(String customerName, String customerPhone) {
+            this.customerInfo = new CustomerInfo(customerName, customerPhone);
+        }
+
+        public Builder setMenu(MenuCatalog menu) {
+            this.menu = menu;
+            return this;
+        }
+
+        public Builder setEmail(String email) {
+            this.email = email;
+            return this;
+        }
+
+        public Builder setDeliveryAddress(String deliveryAddress) {
+            this.deliveryAddress = deliveryAddress;
+            return this;
+        }
+
+        public Builder setSpecialInstructions(String specialInstructions) {
+            this.specialInstructions = specialInstructions;
+            return this;
+        }
+
+        // Admission control rate-limits each channel separately
+        public Builder setChannel(String channel) {
+            this.channel = channel;
+            return this;
+        }
+
+        // How this order will be paid; bound to the order so concurrent checkouts never share it
+        public Builder setPaymentStrategy(PaymentStrategy paymentStrategy) {
+            this.paymentStrategy = paymentStrategy;
+            return this;
+        }
+
+        public Builder addItem(MenuItem item, int quantity, List<String> customizations) {
+            this.orderItems.add(new OrderItem(item, quantity, customizations));
+            return this;
+        }
+
+        public Builder addItem(MenuItem item, int quantity) {
+            return addItem(item, quantity, new ArrayList<>());
+        }
+
+        public Builder addItem(int itemId, int quantity) {
+            return addItem(menuItem(menu().getItem(itemId), "ID " + itemId), quantity);
+        }
+
+        public Builder addItem(String itemName, int quantity) {
+            return addItem(menuItem(menu().findItem(itemName), "'" + itemName + "'"), quantity);
+        }
+
+        private MenuCatalog menu() {
+            if (menu == null) {
+                throw new IllegalStateException("No menu set on this order builder");
+            }
+            return menu;
+        }
+
+        private static MenuItem menuItem(MenuItem item, String reference) {
+            if (item == null) {
+                throw new IllegalStateException("Menu item " + reference + " is not on the menu");
+            }
+            return item;
+        }
+
+        public Order build() {
+            if (orderItems.isEmpty()) {
+                throw new IllegalStateException("Order must contain at least one item");
+            }
+            if (customerInfo.getCustomerName() == null || customerInfo.getCustomerName().trim().isEmpty()) {
+                throw new IllegalStateException("Customer name is required");
+            }
+            return new Order(this);
+        }
+
+        // Used when replaying the event log; the log is trusted, so no validation
+        Order restore(long orderNumber, OrderState state, PaymentResult paymentResult) {
+            return new Order(this, orderNumber, state, paymentResult);
+        }
+    }
+
+    // Enhanced state management with notifications.
+    // Transitions are serialized per order, so concurrent commands on the same order
+    // never interleave and observers see transitions in order.
+    public synchronized void setState(OrderState newState) {
+        if (!currentState.canTransitionTo(newState)) {
+            throw new IllegalStateException("Illegal transition " + currentState + " -> " + newState);
+        }
+        changeState(newState);
+    }
+
+    // Undo path: returns to an earlier state without the forward-only legality check
+    public synchronized void restoreState(OrderState previousState) {
+        changeState(previousState);
+    }
+
+    // If the event log cannot record the change it throws before any observer is told,
+    // and the order stays where it was
+    private void changeState(OrderState newState) {
+        OrderState previousStatus = this.currentState;
+        long previousEnteredAt = this.stateEnteredAtNanos[newState.ordinal()];
+        this.currentState = newState;
+        this.stateEnteredAtNanos[newState.ordinal()] = System.nanoTime();
+
+        // Notify observers about status change
+        try {
+            notifyOrderStatusChanged(this, previousStatus, newState);
+        } catch (RuntimeException e) {
+            this.currentState = previousStatus;
+            this.stateEnteredAtNanos[newState.ordinal()] = previousEnteredAt;
+            throw e;
+        }
+
+        System.out.println("📱 Order " + orderId + " status changed to: " + newState);
+    }
+
+    // Replay path: applies a logged state or payment without printing or notifying
+    synchronized void recoverState(OrderState state) {
+        this.currentState = state;
+    }
+
+    synchronized void recoverPaymentResult(PaymentResult result) {
+        this.paymentResult = result;
+    }
+
+    public synchronized long getStateEnteredAtNanos(OrderState state) {
+        return stateEnteredAtNanos[state.ordinal()];
+    }
+
+    // Time spent in the current state so far
+    public synchronized long getTimeInCurrentStateNanos() {
+        long entered = stateEnteredAtNanos[currentState.ordinal()];
+        return entered == 0 ? 0 : System.nanoTime() - entered;
+    }
+
+    public synchronized void processNextStep() {
+        currentState.nextStep(this);
+    }
+
+    public synchronized void cancel() {
+        if (canCancel()) {
+            currentState.cancel(this);
+            // Notify observers about cancellation
+            notifyOrderCancelled(this);
+        } else {
+            System.out.println("❌ Cannot cancel order in current state");
+        }
+    }
+
+    public boolean canCancel() {
+        return currentState.canCancel();
+    }
+
+    public boolean canModify() {
+        return currentState.canModify();
+    }
+
+    public String getStatus() {
+        return currentState.getStatusName();
+    }
+
+    // Payment methods with notifications
+    public void setPaymentResult(PaymentResult result) {
+        PaymentResult previous = this.paymentResult;
+        this.paymentResult = result;
+        // Notify observers about payment processing
+        try {
+            notifyPaymentProcessed(this, result);
+        } catch (RuntimeException e) {
+            this.paymentResult = previous; // not logged, so not recorded
+            throw e;
+        }
+    }
+
+    public boolean isPaid() {
+        return paymentResult != null && paymentResult.isSuccess();
+    }
+
+    // Method to trigger order placed notification
+    public void triggerOrderPlacedNotification() {
+        notifyOrderPlaced(this);
+    }
+
+    // Other methods
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public double getTotalValue() {
+        return Money.toDecimal(totalCents);
+    }
+
+    public void displaySummary() {
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("ORDER SUMMARY - " + orderId);
+        System.out.println("Customer: " + customerInfo.getCustomerName());
+        System.out.println("Phone: " + customerInfo.getNumber());
+
+        if (!email.isEmpty()) {
+            System.out.println("Email: " + email);
+        }
+
+        if (!deliveryAddress.isEmpty()) {
+            System.out.println("Delivery Address: " + deliveryAddress);
+        }
+
+        System.out.println("Status: " + getStatus() +
+                " (Can cancel: " + canCancel() +
+                ", Can modify: " + canModify() + ")");
+
+        System.out.println("Items:");
+        for (OrderItem item : orderItems) {
+            System.out.printf("  - %s: %s%n",
+                    item.getDescription(), Money.format(item.getTotalPriceCents()));
+        }
+
+        System.out.printf("Total: %s%n", Money.format(totalCents));
+
+        if (paymentResult != null) {
+            System.out.println("Payment: " + paymentResult);
+        } else {
+            System.out.println("Payment: Not processed");
+        }
+
+        if (!specialInstructions.isEmpty()) {
+            System.out.println("Special Instructions: " + specialInstructions);
+        }
+
+        System.out.println("=".repeat(50));
+    }
+
+    // Getters
+    public String getOrderId() { return orderId; }
+    public long getOrderNumber() { return orderNumber; }
+    long getStoreSequence() { return storeSequence; }
+    void setStoreSequence(long storeSequence) { this.storeSequence = storeSequence; }
+    public CustomerInfo getCustomerInfo() { return customerInfo; }
+    public String getEmail() { return email; }
+    public String getDeliveryAddress() { return deliveryAddress; }
+    public String getSpecialInstructions() { return specialInstructions; }
+    public List<OrderItem> getOrderItems() { return orderItems; } // read-only, never copied
+    public int itemCount() { return orderItems.size(); }
+    public OrderState getCurrentState() { return currentState; }
+    public PaymentStrategy getPaymentStrategy() { return paymentStrategy; }
+    public String getChannel() { return channel; }
+    public PaymentResult getPaymentResult() { return paymentResult; }
+}
@@ -0,0 +1,345 @@
+package projects.restaurant;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ============================================================================
+// ORDER EVENT BUS - delivers order events to observers
+// ============================================================================
+
+// Restaurant-level event bus: observers subscribe once and every order publishes
+// through the same copy-on-write subscriber table, so fan-out cost and memory do
+// not grow with the number of orders.
+// Subscriptions are compiled into a per-event dispatch table, so an observer that
+// is not interested in an event (or in a given status) is never called for it.
+// The journal (the event log) is not a subscriber: it gets every event first and
+// its failures are not caught, so an event it cannot record fails the operation
+// that published it and no observer ever sees it.
+class OrderEventBus {
+    private static final OrderObserver[] NONE = new OrderObserver[0];
+
+    // Immutable routing table rebuilt on every (rare) subscription change
+    private static final class DispatchTable {
+        final OrderObserver[][] byEventType;
+        final OrderObserver[][] byNewStatus; // indexed by OrderState ordinal
+        final OrderObserver[] all;
+
+        DispatchTable(List<OrderObserver> observers, List<OrderEventInterest> interests) {
+            all = observers.toArray(NONE);
+            OrderEventType[] types = OrderEventType.values();
+            byEventType = new OrderObserver[types.length][];
+            for (OrderEventType type : types) {
+                List<OrderObserver> targets = new ArrayList<>();
+                for (int i = 0; i < observers.size(); i++) {
+                    if (interests.get(i).wants(type)) {
+                        targets.add(observers.get(i));
+                    }
+                }
+                byEventType[type.ordinal()] = targets.toArray(NONE);
+            }
+
+            OrderState[] states = OrderState.values();
+            byNewStatus = new OrderObserver[states.length][];
+            for (OrderState state : states) {
+                List<OrderObserver> targets = new ArrayList<>();
+                for (int i = 0; i < observers.size(); i++) {
+                    if (interests.get(i).wantsStatus(state)) {
+                        targets.add(observers.get(i));
+                    }
+                }
+                byNewStatus[state.ordinal()] = targets.toArray(NONE);
+            }
+        }
+
+        OrderObserver[] forType(OrderEventType type) {
+            return byEventType[type.ordinal()];
+        }
+
+        OrderObserver[] forNewStatus(OrderState newStatus) {
+            return byNewStatus[newStatus.ordinal()];
+        }
+    }
+
+    // Events a thread publishes between beginBatch() and endBatch(); delivered at the end,
+    // with each order's status changes merged into one (first "from", last "to")
+    private static final class PendingEvent {
+        final OrderEventType type;
+        final Order order;
+        final OrderState previousStatus;
+        OrderState newStatus;
+        final PaymentResult paymentResult;
+
+        PendingEvent(OrderEventType type, Order order, OrderState previousStatus, OrderState newStatus,
+                     PaymentResult paymentResult) {
+            this.type = type;
+            this.order = order;
+            this.previousStatus = previousStatus;
+            this.newStatus = newStatus;
+            this.paymentResult = paymentResult;
+        }
+    }
+
+    private static final class PendingBatch {
+        int depth;
+        final List<PendingEvent> events = new ArrayList<>();
+        final Map<Order, PendingEvent> statusChanges = new IdentityHashMap<>();
+    }
+
+    private final List<OrderObserver> observers = new ArrayList<>();
+    private final List<OrderEventInterest> interests = new ArrayList<>();
+    private volatile DispatchTable table = new DispatchTable(observers, interests);
+    private final ThreadLocal<PendingBatch> batches = new ThreadLocal<>();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private volatile OrderObserver journal;
+
+    public void subscribe(OrderObserver observer) {
+        subscribe(observer, observer.getInterest());
+    }
+
+    public synchronized void subscribe(OrderObserver observer, OrderEventInterest interest) {
+        observers.add(observer);
+        interests.add(interest);
+        table = new DispatchTable(observers, interests);
+        System.out.println("🔗 Observer registered: " + observer.getClass().getSimpleName());
+    }
+
+    public synchronized void unsubscribe(OrderObserver observer) {
+        int index = observers.indexOf(observer);
+        if (index >= 0) {
+            observers.remove(index);
+            interests.remove(index);
+            table = new DispatchTable(observers, interests);
+            System.out.println("🔗 Observer removed: " + observer.getClass().getSimpleName());
+        }
+    }
+
+    // Swaps one subscriber for another (keeping its interest and position) in a single
+    // table rebuild, so no event reaches both or neither
+    public synchronized boolean replace(OrderObserver current, OrderObserver replacement) {
+        int index = observers.indexOf(current);
+        if (index < 0) {
+            return false;
+        }
+        observers.set(index, replacement);
+        table = new DispatchTable(observers, interests);
+        System.out.println("🔗 Observer replaced: " + current.getClass().getSimpleName()
+                + " -> " + replacement.getClass().getSimpleName());
+        return true;
+    }
+
+    // null removes the journal
+    public void setJournal(OrderObserver journal) {
+        this.journal = journal;
+        if (journal != null) {
+            System.out.println("🔗 Journal registered: " + journal.getClass().getSimpleName());
+        }
+    }
+
+    public synchronized int getSubscriberCount() {
+        return observers.size();
+    }
+
+    // Until the matching endBatch(), events published by this thread are held back.
+    // Batches nest; only the outermost endBatch() delivers.
+    public void beginBatch() {
+        PendingBatch batch = batches.get();
+        if (batch == null) {
+            batch = new PendingBatch();
+            batches.set(batch);
+        }
+        batch.depth++;
+    }
+
+    // Delivers the held events in publish order. Status changes of one order are merged,
+    // so observers see a single move from where the order was to where it ended up.
+    public void endBatch() {
+        PendingBatch batch = batches.get();
+        if (batch == null) {
+            throw new IllegalStateException("endBatch() without beginBatch()");
+        }
+        if (--batch.depth > 0) {
+            return;
+        }
+        batches.remove();
+        List<PendingEvent> events = new ArrayList<>(batch.events.size());
+        for (PendingEvent event : batch.events) {
+            if (event.type != OrderEventType.STATUS_CHANGED || event.previousStatus != event.newStatus) {
+                events.add(event);
+            }
+        }
+        // The whole batch is journaled as one write before anyone else sees it; if that
+        // fails the exception reaches the caller and nothing is delivered
+        OrderObserver journal = this.journal;
+        if (journal != null) {
+            journal.onBatchStarted();
+            for (PendingEvent event : events) {
+                deliver(journal, event);
+            }
+            journal.onBatchFinished();
+        }
+        OrderObserver[] all = table.all;
+        for (OrderObserver observer : all) {
+            try {
+                observer.onBatchStarted();
+            } catch (Exception e) {
+                System.err.println("Error in observer notification: " + e.getMessage());
+            }
+        }
+        try {
+            for (PendingEvent event : events) {
+                OrderObserver[] targets = event.type == OrderEventType.STATUS_CHANGED
+                        ? table.forNewStatus(event.newStatus)
+                        : table.forType(event.type);
+                for (OrderObserver observer : targets) {
+                    try {
+                        deliver(observer, event);
+                    } catch (Exception e) {
+                        System.err.println("Error in observer notification: " + e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            for (OrderObserver observer : all) {
+                try {
+                    observer.onBatchFinished();
+                } catch (Exception e) {
+                    System.err.println("Error in observer notification: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void deliver(OrderObserver observer, PendingEvent event) {
+        switch (event.type) {
+            case ORDER_PLACED:
+                observer.onOrderPlaced(event.order);
+                break;
+            case STATUS_CHANGED:
+                observer.onOrderStatusChanged(event.order, event.previousStatus, event.newStatus);
+                break;
+            case ORDER_CANCELLED:
+                observer.onOrderCancelled(event.order);
+                break;
+            case PAYMENT_PROCESSED:
+                observer.onPaymentProcessed(event.order, event.paymentResult);
+                break;
+            case ORDER_REMOVED:
+                observer.onOrderRemoved(event.order);
+                break;
+        }
+    }
+
+    public long getCoalescedCount() {
+        return coalescedEvents.get();
+    }
+
+    private boolean deferred(OrderEventType type, Order order, OrderState previousStatus, OrderState newStatus,
+                             PaymentResult paymentResult) {
+        PendingBatch batch = batches.get();
+        if (batch == null) {
+            return false;
+        }
+        if (type == OrderEventType.STATUS_CHANGED) {
+            PendingEvent pending = batch.statusChanges.get(order);
+            if (pending != null) {
+                pending.newStatus = newStatus;
+                coalescedEvents.incrementAndGet();
+                return true;
+            }
+        }
+        PendingEvent event = new PendingEvent(type, order, previousStatus, newStatus, paymentResult);
+        batch.events.add(event);
+        if (type == OrderEventType.STATUS_CHANGED) {
+            batch.statusChanges.put(order, event);
+        }
+        return true;
+    }
+
+    public void publishOrderPlaced(Order order) {
+        if (deferred(OrderEventType.ORDER_PLACED, order, null, null, null)) {
+            return;
+        }
+        OrderObserver journal = this.journal;
+        if (journal != null) {
+            journal.onOrderPlaced(order);
+        }
+        for (OrderObserver observer : table.forType(OrderEventType.ORDER_PLACED)) {
+            try {
+                observer.onOrderPlaced(order);
+            } catch (Exception e) {
+                System.err.println("Error in observer notification: " + e.getMessage());
+            }
+        }
+    }
+
+    public void publishOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        if (deferred(OrderEventType.STATUS_CHANGED, order, previousStatus, newStatus, null)) {
+            return;
+        }
+        OrderObserver journal = this.journal;
+        if (journal != null) {
+            journal.onOrderStatusChanged(order, previousStatus, newStatus);
+        }
+        for (OrderObserver observer : table.forNewStatus(newStatus)) {
+            try {
+                observer.onOrderStatusChanged(order, previousStatus, newStatus);
+            } catch (Exception e) {
+                System.err.println("Error in observer notification: " + e.getMessage());
+            }
+        }
+    }
+
+    public void publishOrderCancelled(Order order) {
+        if (deferred(OrderEventType.ORDER_CANCELLED, order, null, null, null)) {
+            return;
+        }
+        OrderObserver journal = this.journal;
+        if (journal != null) {
+            journal.onOrderCancelled(order);
+        }
+        for (OrderObserver observer : table.forType(OrderEventType.ORDER_CANCELLED)) {
+            try {
+                observer.onOrderCancelled(order);
+            } catch (Exception e) {
+                System.err.println("Error in observer notification: " + e.getMessage());
+            }
+        }
+    }
+
+    public void publishPaymentProcessed(Order order, PaymentResult paymentResult) {
+        if (deferred(OrderEventType.PAYMENT_PROCESSED, order, null, null, paymentResult)) {
+            return;
+        }
+        OrderObserver journal = this.journal;
+        if (journal != null) {
+            journal.onPaymentProcessed(order, paymentResult);
+        }
+        for (OrderObserver observer : table.forType(OrderEventType.PAYMENT_PROCESSED)) {
+            try {
+                observer.onPaymentProcessed(order, paymentResult);
+            } catch (Exception e) {
+                System.err.println("Error in observer notification: " + e.getMessage());
+            }
+        }
+    }
+
+    public void publishOrderRemoved(Order order) {
+        if (deferred(OrderEventType.ORDER_REMOVED, order, null, null, null)) {
+            return;
+        }
+        OrderObserver journal = this.journal;
+        if (journal != null) {
+            journal.onOrderRemoved(order);
+        }
+        for (OrderObserver observer : table.forType(OrderEventType.ORDER_REMOVED)) {
+            try {
+                observer.onOrderRemoved(order);
+            } catch (Exception e) {
+                System.err.println("Error in observer notification: " + e.getMessage());
+            }
+        }
+    }
+}
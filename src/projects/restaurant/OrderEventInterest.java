@@ -0,0 +1,43 @@
+package projects.restaurant;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// ============================================================================
+// OBSERVER INTEREST - which events an observer wants
+// ============================================================================
+
+// Declares which event types (and, for status changes, which new statuses) an observer cares about
+class OrderEventInterest {
+    private static final OrderEventInterest ALL =
+            new OrderEventInterest(EnumSet.allOf(OrderEventType.class), EnumSet.allOf(OrderState.class));
+
+    private final Set<OrderEventType> eventTypes;
+    private final Set<OrderState> statuses;
+
+    private OrderEventInterest(Set<OrderEventType> eventTypes, Set<OrderState> statuses) {
+        this.eventTypes = eventTypes;
+        this.statuses = statuses;
+    }
+
+    public static OrderEventInterest all() {
+        return ALL;
+    }
+
+    public static OrderEventInterest of(OrderEventType first, OrderEventType... rest) {
+        return new OrderEventInterest(EnumSet.of(first, rest), EnumSet.allOf(OrderState.class));
+    }
+
+    // Restricts status-change events to the given new statuses
+    public OrderEventInterest onlyStatuses(OrderState first, OrderState... rest) {
+        return new OrderEventInterest(eventTypes, EnumSet.of(first, rest));
+    }
+
+    public boolean wants(OrderEventType eventType) {
+        return eventTypes.contains(eventType);
+    }
+
+    public boolean wantsStatus(OrderState newStatus) {
+        return eventTypes.contains(OrderEventType.STATUS_CHANGED) && statuses.contains(newStatus);
+    }
+}
@@ -0,0 +1,572 @@
+package projects.restaurant;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// ============================================================================
+// WRITE-AHEAD EVENT LOG - durable order lifecycle with crash recovery
+// ============================================================================
+
+// Append-only log of every placement, state transition, cancellation, payment
+// result and removal, written through a memory-mapped file. It is the journal of
+// the restaurant's event bus: each event is appended before any observer sees it,
+// and an append that fails (log closed, disk full) fails the command behind it.
+// On startup the restaurant rebuilds its orders by replaying it.
+//
+// Record layout:  [int length][int crc32][byte type][payload ...]
+// A zero length marks the end of the log (the file is extended with zeros);
+// a record whose checksum does not match is a torn write and ends replay.
+//
+// Durability is group-committed: appends only copy into the mapping, and the
+// dirty range is forced to disk every groupCommitMillis by a background thread
+// (0 = force on every append).
+//
+// Offsets handed out (getOffset) are logical: compactTo(offset) drops everything
+// before a snapshot's offset by rewriting the file to start with a BASE record
+// naming that offset, so offsets taken before compaction stay valid after it.
+class OrderEventLog implements OrderObserver, AutoCloseable {
+    static final byte PLACED = 1;
+    static final byte STATUS_CHANGED = 2;
+    static final byte CANCELLED = 3;
+    static final byte PAYMENT = 4;
+    static final byte REMOVED = 5;
+    static final byte BASE = 6; // first record of a compacted log: [long logical offset it starts at]
+
+    private static final int HEADER_BYTES = 8;
+    private static final long DEFAULT_REGION_BYTES = 64L * 1024 * 1024;
+
+    private final Path file;
+    private FileChannel channel;       // replaced by compactTo
+    private final long regionBytes;
+    private final long groupCommitMillis;
+    private final Thread committer;
+
+    // Guarded by this
+    private MappedByteBuffer region;
+    private long regionStart;      // file offset of region position 0
+    private long writePosition;    // file offset of the next record
+    private long baseOffset;       // logical offset of the first record after BASE (0 if never compacted)
+    private long baseRecordEnd;    // file offset just after the BASE record
+    private int dirtyFrom = -1;    // first unforced byte within region
+    private long appendedRecords;
+    private long syncCount;
+    private long compactions;
+    private boolean closed;
+
+    private final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));
+    private final ThreadLocal<CRC32> checksums = ThreadLocal.withInitial(CRC32::new);
+    private final ThreadLocal<PendingBatch> batches = ThreadLocal.withInitial(PendingBatch::new);
+    private long batchWrites;
+    private long highestOrderNumber; // set by recovery
+
+    // Records of one command batch, collected on the publishing thread and written together
+    private static final class PendingBatch {
+        boolean active;
+        int records;
+        ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+    }
+
+    OrderEventLog(Path file, long groupCommitMillis) {
+        this(file, groupCommitMillis, DEFAULT_REGION_BYTES);
+    }
+
+    OrderEventLog(Path file, long groupCommitMillis, long regionBytes) {
+        this.file = file;
+        this.groupCommitMillis = groupCommitMillis;
+        this.regionBytes = regionBytes;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.writePosition = findEndOfLog();
+            mapRegion(writePosition, HEADER_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open event log " + file, e);
+        }
+        if (groupCommitMillis > 0) {
+            committer = new Thread(this::runGroupCommit, "event-log-commit");
+            committer.setDaemon(true);
+            committer.start();
+        } else {
+            committer = null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Observer side: every bus event becomes one record
+    // ------------------------------------------------------------------------
+
+    @Override
+    public void onOrderPlaced(Order order) {
+        ByteBuffer buffer = begin(PLACED);
+        buffer = putLong(buffer, order.getOrderNumber());
+        buffer = putString(buffer, order.getCustomerInfo().getCustomerName());
+        buffer = putString(buffer, order.getCustomerInfo().getNumber());
+        buffer = putString(buffer, order.getEmail());
+        buffer = putString(buffer, order.getDeliveryAddress());
+        buffer = putString(buffer, order.getSpecialInstructions());
+        List<OrderItem> items = order.getOrderItems();
+        buffer = putInt(buffer, items.size());
+        for (OrderItem item : items) {
+            MenuItem menuItem = item.getMenuItem();
+            buffer = putString(buffer, menuItem.getName());
+            buffer = putString(buffer, menuItem.getDescription());
+            buffer = putLong(buffer, menuItem.getAmountCents());
+            buffer = putInt(buffer, item.getQuantity());
+            List<String> customizations = item.getCustomizations();
+            buffer = putInt(buffer, customizations.size());
+            for (String customization : customizations) {
+                buffer = putString(buffer, customization);
+            }
+        }
+        buffer = putByte(buffer, (byte) order.getCurrentState().ordinal());
+        append(buffer);
+    }
+
+    @Override
+    public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        ByteBuffer buffer = begin(STATUS_CHANGED);
+        buffer = putLong(buffer, order.getOrderNumber());
+        buffer = putByte(buffer, (byte) newStatus.ordinal());
+        append(buffer);
+    }
+
+    @Override
+    public void onOrderCancelled(Order order) {
+        ByteBuffer buffer = begin(CANCELLED);
+        buffer = putLong(buffer, order.getOrderNumber());
+        append(buffer);
+    }
+
+    @Override
+    public void onPaymentProcessed(Order order, PaymentResult paymentResult) {
+        ByteBuffer buffer = begin(PAYMENT);
+        buffer = putLong(buffer, order.getOrderNumber());
+        buffer = putByte(buffer, (byte) (paymentResult.isSuccess() ? 1 : 0));
+        buffer = putString(buffer, paymentResult.getTransactionId());
+        buffer = putString(buffer, paymentResult.getMessage());
+        buffer = putString(buffer, paymentResult.getPaymentMethod());
+        append(buffer);
+    }
+
+    @Override
+    public void onOrderRemoved(Order order) {
+        ByteBuffer buffer = begin(REMOVED);
+        buffer = putLong(buffer, order.getOrderNumber());
+        append(buffer);
+    }
+
+    // A batch's records reach the file as one write (and, without group commit, one sync)
+    @Override
+    public void onBatchStarted() {
+        PendingBatch batch = batches.get();
+        batch.active = true;
+        batch.records = 0;
+        batch.buffer.clear();
+    }
+
+    @Override
+    public void onBatchFinished() {
+        PendingBatch batch = batches.get();
+        batch.active = false;
+        if (batch.records > 0) {
+            batch.buffer.flip();
+            synchronized (this) {
+                write(batch.buffer, batch.records);
+                batchWrites++;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Append path
+    // ------------------------------------------------------------------------
+
+    // Records are encoded into a per-thread buffer outside the lock; only the copy
+    // into the mapping is serialized
+    private ByteBuffer begin(byte type) {
+        ByteBuffer buffer = scratch.get();
+        buffer.clear();
+        buffer.position(HEADER_BYTES);
+        buffer.put(type);
+        return buffer;
+    }
+
+    private void append(ByteBuffer buffer) {
+        int length = buffer.position() - HEADER_BYTES;
+        CRC32 crc = checksums.get();
+        crc.reset();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        scratch.set(buffer); // keep the grown buffer for this thread
+
+        PendingBatch batch = batches.get();
+        if (batch.active) {
+            batch.buffer = ensure(batch.buffer, buffer.remaining()).put(buffer);
+            batch.records++;
+            return;
+        }
+        write(buffer, 1);
+    }
+
+    // buffer holds whole framed records
+    private synchronized void write(ByteBuffer buffer, int records) {
+        if (closed) {
+            throw new IllegalStateException("Event log is closed");
+        }
+        if (region.remaining() < buffer.remaining() + HEADER_BYTES) {
+            forceDirty();
+            mapRegion(writePosition, buffer.remaining() + HEADER_BYTES);
+        }
+        if (dirtyFrom < 0) {
+            dirtyFrom = region.position();
+        }
+        region.put(buffer);
+        writePosition = regionStart + region.position();
+        appendedRecords += records;
+        if (groupCommitMillis <= 0) {
+            forceDirty();
+        }
+    }
+
+    // Forces everything appended so far to disk
+    public synchronized void sync() {
+        forceDirty();
+    }
+
+    private void forceDirty() {
+        if (dirtyFrom >= 0) {
+            region.force(dirtyFrom, region.position() - dirtyFrom);
+            dirtyFrom = -1;
+            syncCount++;
+        }
+    }
+
+    private void runGroupCommit() {
+        while (true) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(groupCommitMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                forceDirty();
+            }
+        }
+    }
+
+    private void mapRegion(long start, int minimumBytes) {
+        try {
+            long size = Math.max(regionBytes, minimumBytes);
+            region = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+            regionStart = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extend event log " + file, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            forceDirty();
+            closed = true;
+        }
+        if (committer != null) {
+            committer.interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized long getAppendedRecords() { return appendedRecords; }
+    public synchronized long getSyncCount() { return syncCount; }
+    public synchronized long getBatchWrites() { return batchWrites; }
+    public synchronized long getSizeBytes() { return writePosition; }
+    public synchronized long getCompactions() { return compactions; }
+
+    // Logical offset of the next record; what a snapshot records to resume replay from
+    public synchronized long getOffset() {
+        return baseOffset + writePosition - baseRecordEnd;
+    }
+
+    // ------------------------------------------------------------------------
+    // Compaction
+    // ------------------------------------------------------------------------
+
+    // Drops every record before offset, which must be one getOffset() returned and
+    // a durable snapshot covers. The tail is copied to a new file behind a BASE
+    // record and renamed over the log, so a crash leaves either the old log or the
+    // new one. Appends wait while the tail is copied.
+    public synchronized void compactTo(long offset) {
+        if (closed || offset <= baseOffset) {
+            return;
+        }
+        long from = offset - baseOffset + baseRecordEnd;
+        if (from > writePosition) {
+            throw new IllegalArgumentException("Offset " + offset + " is past the end of the log");
+        }
+        forceDirty();
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        ByteBuffer base = begin(BASE);
+        base = putLong(base, offset);
+        int baseLength = base.position() - HEADER_BYTES;
+        CRC32 crc = checksums.get();
+        crc.reset();
+        crc.update(base.array(), HEADER_BYTES, baseLength);
+        base.putInt(0, baseLength);
+        base.putInt(4, (int) crc.getValue());
+        base.flip();
+        int baseBytes = base.remaining();
+        try (FileChannel compacted = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (base.hasRemaining()) {
+                compacted.write(base);
+            }
+            long copied = 0;
+            while (copied < writePosition - from) {
+                copied += channel.transferTo(from + copied, writePosition - from - copied, compacted);
+            }
+            compacted.force(true);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact event log " + file, e);
+        }
+        try {
+            channel.close();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot reopen event log " + file, e);
+        }
+        writePosition = baseBytes + writePosition - from;
+        baseOffset = offset;
+        baseRecordEnd = baseBytes;
+        dirtyFrom = -1;
+        compactions++;
+        mapRegion(writePosition, HEADER_BYTES);
+    }
+    public Path getFile() { return file; }
+
+    // ------------------------------------------------------------------------
+    // Recovery
+    // ------------------------------------------------------------------------
+
+    private long findEndOfLog() throws IOException {
+        long[] end = {0};
+        scan(0, (type, payload, offset) -> {
+            if (type == BASE && end[0] == 0) {
+                baseOffset = payload.getLong();
+                baseRecordEnd = offset;
+            }
+            end[0] = offset;
+        });
+        return end[0];
+    }
+
+    interface RecordVisitor {
+        // offset is the file position just after the record
+        void visit(byte type, ByteBuffer payload, long offset);
+    }
+
+    // Reads every intact record starting at fromOffset
+    private void scan(long fromOffset, RecordVisitor visitor) throws IOException {
+        long size = channel.size();
+        long position = fromOffset;
+        CRC32 crc = new CRC32();
+        while (position + HEADER_BYTES <= size) {
+            long window = Math.min(regionBytes, size - position);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+            int consumed = 0;
+            while (consumed + HEADER_BYTES <= window) {
+                int length = mapped.getInt(consumed);
+                if (length <= 0) {
+                    return; // end of log
+                }
+                if (consumed + HEADER_BYTES + length > window) {
+                    if (position + consumed + HEADER_BYTES + length > size) {
+                        return; // torn tail
+                    }
+                    break; // record continues past this window; remap from its start
+                }
+                int expected = mapped.getInt(consumed + 4);
+                ByteBuffer payload = mapped.slice(consumed + HEADER_BYTES, length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != expected) {
+                    return; // torn write
+                }
+                consumed += HEADER_BYTES + length;
+                visitor.visit(payload.get(), payload, position + consumed);
+            }
+            if (consumed == 0) {
+                return;
+            }
+            position += consumed;
+        }
+    }
+
+    // Rebuilds orders from the log. Orders come back with their logged state and
+    // payment but without an event bus; the caller attaches it.
+    public Map<Long, Order> recoverOrders() {
+        return recoverOrders(0, new LinkedHashMap<>());
+    }
+
+    // Replays records from fromOffset on top of already-known orders (e.g. a snapshot)
+    public Map<Long, Order> recoverOrders(long fromOffset, Map<Long, Order> orders) {
+        if (fromOffset < baseOffset) {
+            throw new IllegalStateException("Event log " + file + " was compacted up to offset " + baseOffset
+                    + "; recovery needs the snapshot taken there");
+        }
+        // Only successful payments are held for a PLACED record, which the placing thread
+        // logs right after them; a failed payment never gets one
+        Map<Long, PaymentResult> payments = new LinkedHashMap<>();
+        try {
+            scan(fromOffset - baseOffset + baseRecordEnd, (type, payload, offset) -> {
+                long orderNumber = payload.getLong();
+                if (type != BASE) {
+                    highestOrderNumber = Math.max(highestOrderNumber, orderNumber);
+                }
+                switch (type) {
+                    case PLACED: {
+                        PaymentResult payment = payments.remove(orderNumber);
+                        Order known = orders.get(orderNumber);
+                        if (payment == null && known != null) {
+                            payment = known.getPaymentResult(); // its PAYMENT record predates the snapshot offset
+                        }
+                        Order order = readPlacedOrder(orderNumber, payload, payment);
+                        orders.put(orderNumber, order);
+                        break;
+                    }
+                    case STATUS_CHANGED: {
+                        Order order = orders.get(orderNumber);
+                        if (order != null) {
+                            order.recoverState(OrderState.fromOrdinal(payload.get()));
+                        }
+                        break;
+                    }
+                    case PAYMENT: {
+                        boolean success = payload.get() == 1;
+                        PaymentResult result = new PaymentResult(success, getString(payload),
+                                getString(payload), getString(payload));
+                        Order order = orders.get(orderNumber);
+                        if (order != null) {
+                            order.recoverPaymentResult(result);
+                        } else if (success) {
+                            payments.put(orderNumber, result); // payment is logged before placement
+                        }
+                        break;
+                    }
+                    case REMOVED:
+                        orders.remove(orderNumber);
+                        break;
+                    case CANCELLED:
+                    case BASE:
+                    default:
+                        break; // the CANCELLED state itself arrives as a status change
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay event log " + file, e);
+        }
+        return orders;
+    }
+
+    // Highest order number any replayed record named; the ID generator must move past it
+    public long getHighestOrderNumber() {
+        return highestOrderNumber;
+    }
+
+    private static Order readPlacedOrder(long orderNumber, ByteBuffer payload, PaymentResult payment) {
+        Order.Builder builder = new Order.Builder(getString(payload), getString(payload))
+                .setEmail(getString(payload))
+                .setDeliveryAddress(getString(payload))
+                .setSpecialInstructions(getString(payload));
+        int itemCount = payload.getInt();
+        for (int i = 0; i < itemCount; i++) {
+            MenuItem menuItem = MenuItem.ofCents(getString(payload), getString(payload), payload.getLong());
+            int quantity = payload.getInt();
+            int customizationCount = payload.getInt();
+            List<String> customizations = new ArrayList<>(customizationCount);
+            for (int c = 0; c < customizationCount; c++) {
+                customizations.add(getString(payload));
+            }
+            builder.addItem(menuItem, quantity, customizations);
+        }
+        OrderState state = OrderState.fromOrdinal(payload.get());
+        return builder.restore(orderNumber, state, payment);
+    }
+
+    // ------------------------------------------------------------------------
+    // Encoding helpers (buffers grow on demand)
+    // ------------------------------------------------------------------------
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    static ByteBuffer putByte(ByteBuffer buffer, byte value) {
+        return ensure(buffer, 1).put(value);
+    }
+
+    static ByteBuffer putInt(ByteBuffer buffer, int value) {
+        return ensure(buffer, 4).putInt(value);
+    }
+
+    static ByteBuffer putLong(ByteBuffer buffer, long value) {
+        return ensure(buffer, 8).putLong(value);
+    }
+
+    // Length-prefixed UTF-8; length -1 encodes null
+    static ByteBuffer putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            return putInt(buffer, -1);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return ensure(buffer, 4 + bytes.length).putInt(bytes.length).put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
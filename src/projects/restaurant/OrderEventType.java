@@ -0,0 +1,7 @@
+package projects.restaurant;
+
+// ============================================================================
+// ORDER EVENT TYPES
+// ============================================================================
+
+enum OrderEventType { ORDER_PLACED, STATUS_CHANGED, ORDER_CANCELLED, PAYMENT_PROCESSED, ORDER_REMOVED }
@@ -0,0 +1,52 @@
+package projects.restaurant;
+
+import java.util.List;
+
+// ============================================================================
+// ORDER ITEM - a menu item, quantity and customizations
+// ============================================================================
+
+class OrderItem {
+    private final MenuItem menuItem;
+    private final int quantity;
+    private final List<String> customizations;
+
+    OrderItem(MenuItem menuItem, int quantity, List<String> customizations) {
+        this.menuItem = menuItem;
+        this.quantity = quantity;
+        this.customizations = List.copyOf(customizations);
+    }
+
+    // Read-only; never copied
+    public List<String> getCustomizations() {
+        return customizations;
+    }
+
+    public boolean hasCustomizations() {
+        return !customizations.isEmpty();
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public MenuItem getMenuItem() {
+        return menuItem;
+    }
+
+    public long getTotalPriceCents() {
+        return Money.times(menuItem.getAmountCents(), quantity);
+    }
+
+    public double getTotalPrice() {
+        return Money.toDecimal(getTotalPriceCents());
+    }
+
+    public String getDescription() {
+        StringBuilder desc = new StringBuilder(menuItem.getName() + " x" + quantity);
+        if (!customizations.isEmpty()) {
+            desc.append(" (").append(String.join(", ", customizations)).append(")");
+        }
+        return desc.toString();
+    }
+}
@@ -0,0 +1,164 @@
+package projects.restaurant;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ============================================================================
+// ORDER MANAGER - indexed order store
+// ============================================================================
+
+// Indexed order store: O(1) lookup by order ID plus secondary indexes by status
+// and by customer phone, so kitchen/dispatch screens never scan every order.
+// All maps are concurrent; index updates for one order happen under that order's
+// lock, the same lock its state transitions use.
+class OrderManager {
+    private final Map<String, Order> ordersById = new ConcurrentHashMap<>();
+    private final Collection<Order> allOrders = Collections.unmodifiableCollection(ordersById.values());
+    private final Set<Order>[] ordersByStatus = newStatusIndex();
+    private final Map<String, Set<Order>> ordersByCustomer = new ConcurrentHashMap<>();
+    private final AtomicLong storeSequence = new AtomicLong();
+    private final OrderEventBus eventBus;
+
+    // The status index follows every later state transition through the restaurant's event bus
+    OrderManager(OrderEventBus eventBus) {
+        this.eventBus = eventBus;
+        eventBus.subscribe(new StatusIndexUpdater());
+    }
+
+    public void addOrderDirect(Order order) {
+        order.setStoreSequence(storeSequence.incrementAndGet()); // before the order is visible or logged
+        Order existing = ordersById.put(order.getOrderId(), order);
+        if (existing == order) {
+            return;
+        }
+        if (existing != null) {
+            synchronized (existing) {
+                unindex(existing);
+            }
+        }
+        synchronized (order) {
+            index(order);
+        }
+    }
+
+    public void removeOrderDirect(String orderId) {
+        Order order = ordersById.remove(orderId);
+        if (order != null) {
+            synchronized (order) {
+                unindex(order);
+                eventBus.publishOrderRemoved(order);
+            }
+        }
+    }
+
+    // Takes back an order whose placement the event log refused; nothing was published
+    // for it, so nothing is published for its removal either
+    void discardOrder(Order order) {
+        if (ordersById.remove(order.getOrderId(), order)) {
+            synchronized (order) {
+                unindex(order);
+            }
+        }
+    }
+
+    public Order getOrder(String orderId) {
+        return ordersById.get(orderId);
+    }
+
+    // Read-only live view, weakly consistent: iteration never blocks writers and
+    // never copies. Callers that need a stable snapshot copy it themselves.
+    public Collection<Order> getAllOrders() {
+        return allOrders;
+    }
+
+    public List<Order> getOrdersByStatus(OrderState status) {
+        return new ArrayList<>(ordersByStatus[status.ordinal()]);
+    }
+
+    public List<Order> getOrdersByCustomer(String customerPhone) {
+        return new ArrayList<>(ordersByCustomer.getOrDefault(customerPhone, Collections.emptySet()));
+    }
+
+    public int countByStatus(OrderState status) {
+        return ordersByStatus[status.ordinal()].size();
+    }
+
+    public int size() {
+        return ordersById.size();
+    }
+
+    // Every order stored so far has a store sequence at or below this
+    public long getStoreSequence() {
+        return storeSequence.get();
+    }
+
+    private void index(Order order) {
+        ordersByStatus[order.getCurrentState().ordinal()].add(order);
+        addToIndex(ordersByCustomer, order.getCustomerInfo().getNumber(), order);
+    }
+
+    private void unindex(Order order) {
+        ordersByStatus[order.getCurrentState().ordinal()].remove(order);
+        removeFromIndex(ordersByCustomer, order.getCustomerInfo().getNumber(), order);
+    }
+
+    // One concurrent set per state, created up front, so status moves never touch a map
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Set<Order>[] newStatusIndex() {
+        Set<Order>[] index = new Set[OrderState.values().length];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = ConcurrentHashMap.newKeySet();
+        }
+        return index;
+    }
+
+    // compute/computeIfPresent run atomically per key, so a bucket is never dropped
+    // while another thread is adding to it
+    private static void addToIndex(Map<String, Set<Order>> index, String key, Order order) {
+        index.compute(key, (k, bucket) -> {
+            Set<Order> orders = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+            orders.add(order);
+            return orders;
+        });
+    }
+
+    private static void removeFromIndex(Map<String, Set<Order>> index, String key, Order order) {
+        index.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(order);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    // Moves an order between status buckets whenever a stored order changes state
+    // (called from Order.setState, so the order's lock is already held)
+    private class StatusIndexUpdater implements OrderObserver {
+        @Override
+        public OrderEventInterest getInterest() {
+            return OrderEventInterest.of(OrderEventType.STATUS_CHANGED);
+        }
+
+        @Override
+        public void onOrderPlaced(Order order) {}
+
+        @Override
+        public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+            if (ordersById.get(order.getOrderId()) != order) {
+                return;
+            }
+            ordersByStatus[previousStatus.ordinal()].remove(order);
+            ordersByStatus[newStatus.ordinal()].add(order);
+        }
+
+        @Override
+        public void onOrderCancelled(Order order) {}
+
+        @Override
+        public void onPaymentProcessed(Order order, PaymentResult paymentResult) {}
+    }
+}
@@ -0,0 +1,28 @@
+package projects.restaurant;
+
+// ============================================================================
+// OBSERVER PATTERN IMPLEMENTATION - Notification System
+// ============================================================================
+
+interface OrderObserver {
+    void onOrderPlaced(Order order);
+    void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus);
+    void onOrderCancelled(Order order);
+    void onPaymentProcessed(Order order, PaymentResult paymentResult);
+
+    // An order left the order manager (undo of a placement); most observers ignore it
+    default void onOrderRemoved(Order order) {
+    }
+
+    // Bracket the coalesced events of one command batch, delivered on the calling thread
+    default void onBatchStarted() {
+    }
+
+    default void onBatchFinished() {
+    }
+
+    // Events this observer wants; the bus never calls it for anything else
+    default OrderEventInterest getInterest() {
+        return OrderEventInterest.all();
+    }
+}
@@ -0,0 +1,34 @@
+package projects.restaurant;
+
+// ============================================================================
+// ORDER REJECTED - thrown by admission control
+// ============================================================================
+
+// Thrown by placeOrder when the restaurant is over capacity; nothing was charged
+// or recorded, and the order can be placed again after getRetryAfterMillis()
+class OrderRejectedException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    enum Reason { RATE_LIMITED, OVER_CAPACITY }
+
+    private final Reason reason;
+    private final String channel;
+    private final long retryAfterMillis;
+
+    OrderRejectedException(Reason reason, String channel, long retryAfterMillis) {
+        super("Order rejected (" + reason + ", channel " + channel + "), retry after " + retryAfterMillis + " ms");
+        this.reason = reason;
+        this.channel = channel;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public Reason getReason() { return reason; }
+    public String getChannel() { return channel; }
+    public long getRetryAfterMillis() { return retryAfterMillis; }
+
+    // Rejections are routine under load; the stack trace is never needed
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
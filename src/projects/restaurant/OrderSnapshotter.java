@@ -0,0 +1,343 @@
+package projects.restaurant;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// ============================================================================
+// PERIODIC SNAPSHOTS - fast restart without replaying the whole event log
+// ============================================================================
+
+// Writes every order the OrderManager holds (state, items, payment) to a compact
+// binary file in the background. Orders are read straight from the manager's
+// concurrent map, so intake and transitions keep running; each order is copied
+// under its own lock, so every order in the file is internally consistent.
+//
+// The snapshot records the event log offset taken before the scan started.
+// Recovery loads the snapshot and replays the log from that offset: log records
+// carry absolute states, so re-applying ones the snapshot already saw is harmless.
+// Once the snapshot is durable the log is compacted up to that offset.
+// Orders stored after the offset was taken (store sequence above the one read right
+// after it) are skipped: their PLACED records are in the log tail, and skipping them
+// keeps a busy intake from running a weakly consistent scan forever.
+//
+// File layout:
+//   [int magic][int version][long createdAt][long logOffset]
+//   { [byte 1][order] }* [byte 0] [int crc32 of everything before it]
+// Menu items and repeated strings go through a dictionary (see Dictionary below).
+class OrderSnapshotter implements AutoCloseable {
+    private static final int MAGIC = 0x52534E50; // "RSNP"
+    private static final int VERSION = 2; // 2: menu prices as long cents
+
+    private final OrderManager orderManager;
+    private final Path file;
+    private final OrderEventLog eventLog; // may be null: snapshots are then the only durable copy
+    private ScheduledExecutorService scheduler;
+
+    // Last snapshot stats
+    private volatile int lastOrderCount;
+    private volatile long lastSizeBytes;
+    private volatile long lastDurationMillis;
+    private volatile long snapshotCount;
+
+    OrderSnapshotter(OrderManager orderManager, Path file, OrderEventLog eventLog) {
+        this.orderManager = orderManager;
+        this.file = file;
+        this.eventLog = eventLog;
+    }
+
+    public synchronized void start(long intervalMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "order-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshotNow();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Snapshot failed: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Stops the schedule and takes one last snapshot
+    @Override
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        snapshotNow();
+    }
+
+    // Writes a temp file and atomically renames it, so a crash mid-write leaves the previous snapshot
+    public synchronized int snapshotNow() {
+        long began = System.nanoTime();
+        long logOffset = eventLog != null ? eventLog.getOffset() : -1;
+        // Read after the offset: an order is stored before its PLACED record is logged,
+        // so every order placed before the offset is at or below this
+        long lastSequence = orderManager.getStoreSequence();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int orders = 0;
+        CRC32 crc = new CRC32();
+        try (OutputStream raw = Files.newOutputStream(temp);
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(raw, 1 << 20), crc);
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeLong(logOffset);
+            Dictionary dictionary = new Dictionary();
+            for (Order order : orderManager.getAllOrders()) {
+                if (order.getStoreSequence() > lastSequence) {
+                    continue;
+                }
+                out.writeByte(1);
+                writeOrder(out, order, dictionary);
+                orders++;
+            }
+            out.writeByte(0);
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot " + temp, e);
+        }
+        try {
+            try (FileChannel written = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                written.force(true); // the log is about to be compacted on the strength of this file
+            }
+            lastSizeBytes = Files.size(temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot install snapshot " + file, e);
+        }
+        if (eventLog != null) {
+            eventLog.compactTo(logOffset);
+        }
+        lastOrderCount = orders;
+        lastDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+        snapshotCount++;
+        return orders;
+    }
+
+    private static void writeOrder(DataOutputStream out, Order order, Dictionary dictionary)
+            throws IOException {
+        OrderState state;
+        PaymentResult payment;
+        synchronized (order) {
+            state = order.getCurrentState();
+            payment = order.getPaymentResult();
+        }
+        out.writeLong(order.getOrderNumber());
+        out.writeByte(state.ordinal());
+        dictionary.writeString(out, order.getCustomerInfo().getCustomerName());
+        dictionary.writeString(out, order.getCustomerInfo().getNumber());
+        dictionary.writeString(out, order.getEmail());
+        dictionary.writeString(out, order.getDeliveryAddress());
+        dictionary.writeString(out, order.getSpecialInstructions());
+        if (payment == null) {
+            out.writeByte(0);
+        } else {
+            out.writeByte(payment.isSuccess() ? 2 : 1);
+            writeUniqueString(out, payment.getTransactionId());
+            dictionary.writeString(out, payment.getMessage());
+            dictionary.writeString(out, payment.getPaymentMethod());
+        }
+        List<OrderItem> items = order.getOrderItems();
+        out.writeInt(items.size());
+        for (OrderItem item : items) {
+            dictionary.writeMenuItem(out, item.getMenuItem());
+            out.writeInt(item.getQuantity());
+            List<String> customizations = item.getCustomizations();
+            out.writeInt(customizations.size());
+            for (String customization : customizations) {
+                dictionary.writeString(out, customization);
+            }
+        }
+    }
+
+    // Same encoding as the event log: int length + UTF-8, -1 for null
+    private static void writeUniqueString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Repeated values (menu items, customer details, payment messages) are written once
+    // and referenced by index afterwards, which keeps the file small and lets loading
+    // share one instance instead of allocating a copy per order.
+    // A reference equal to the table size introduces a new entry whose definition follows.
+    private static final class Dictionary {
+        private final Map<MenuItem, Integer> menuItems = new IdentityHashMap<>();
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        void writeString(DataOutputStream out, String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            Integer ref = strings.get(value);
+            if (ref != null) {
+                out.writeInt(ref);
+                return;
+            }
+            out.writeInt(strings.size());
+            writeUniqueString(out, value);
+            strings.put(value, strings.size());
+        }
+
+        void writeMenuItem(DataOutputStream out, MenuItem menuItem) throws IOException {
+            Integer ref = menuItems.get(menuItem);
+            if (ref != null) {
+                out.writeInt(ref);
+                return;
+            }
+            out.writeInt(menuItems.size());
+            writeString(out, menuItem.getName());
+            writeString(out, menuItem.getDescription());
+            out.writeLong(menuItem.getAmountCents());
+            menuItems.put(menuItem, menuItems.size());
+        }
+    }
+
+    private static final class DictionaryReader {
+        private final List<MenuItem> menuItems = new ArrayList<>();
+        private final List<String> strings = new ArrayList<>();
+
+        String readString(ByteBuffer in) {
+            int ref = in.getInt();
+            if (ref < 0) {
+                return null;
+            }
+            if (ref == strings.size()) {
+                strings.add(OrderEventLog.getString(in));
+            }
+            return strings.get(ref);
+        }
+
+        MenuItem readMenuItem(ByteBuffer in) {
+            int ref = in.getInt();
+            if (ref == menuItems.size()) {
+                menuItems.add(MenuItem.ofCents(readString(in), readString(in), in.getLong()));
+            }
+            return menuItems.get(ref);
+        }
+    }
+
+    public Path getFile() { return file; }
+    public int getLastOrderCount() { return lastOrderCount; }
+    public long getLastSizeBytes() { return lastSizeBytes; }
+    public long getLastDurationMillis() { return lastDurationMillis; }
+    public long getSnapshotCount() { return snapshotCount; }
+
+    // ------------------------------------------------------------------------
+    // Loading
+    // ------------------------------------------------------------------------
+
+    static class Loaded {
+        final Map<Long, Order> orders;
+        final long logOffset;   // -1 if the snapshot was taken without an event log
+        final long createdAt;
+
+        Loaded(Map<Long, Order> orders, long logOffset, long createdAt) {
+            this.orders = orders;
+            this.logOffset = logOffset;
+            this.createdAt = createdAt;
+        }
+    }
+
+    // Returns null when there is no snapshot yet
+    static Loaded load(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read snapshot " + file, e);
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (bytes.length < 29 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IllegalStateException("Corrupt or unsupported snapshot: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if (in.getInt(bytes.length - 4) != (int) crc.getValue()) {
+            throw new IllegalStateException("Corrupt or unsupported snapshot: " + file);
+        }
+        long createdAt = in.getLong();
+        long logOffset = in.getLong();
+
+        Map<Long, Order> orders = new HashMap<>();
+        DictionaryReader dictionary = new DictionaryReader();
+        while (in.get() == 1) {
+            Order order = readOrder(in, dictionary);
+            orders.put(order.getOrderNumber(), order);
+        }
+        return new Loaded(orders, logOffset, createdAt);
+    }
+
+    private static Order readOrder(ByteBuffer in, DictionaryReader dictionary) {
+        long orderNumber = in.getLong();
+        OrderState state = OrderState.fromOrdinal(in.get());
+        Order.Builder builder = new Order.Builder(dictionary.readString(in), dictionary.readString(in))
+                .setEmail(dictionary.readString(in))
+                .setDeliveryAddress(dictionary.readString(in))
+                .setSpecialInstructions(dictionary.readString(in));
+        PaymentResult payment = null;
+        byte paymentFlag = in.get();
+        if (paymentFlag != 0) {
+            payment = new PaymentResult(paymentFlag == 2, OrderEventLog.getString(in),
+                    dictionary.readString(in), dictionary.readString(in));
+        }
+        int itemCount = in.getInt();
+        for (int i = 0; i < itemCount; i++) {
+            MenuItem menuItem = dictionary.readMenuItem(in);
+            int quantity = in.getInt();
+            int customizationCount = in.getInt();
+            List<String> customizations = new ArrayList<>(customizationCount);
+            for (int c = 0; c < customizationCount; c++) {
+                customizations.add(dictionary.readString(in));
+            }
+            builder.addItem(menuItem, quantity, customizations);
+        }
+        return builder.restore(orderNumber, state, payment);
+    }
+}
@@ -0,0 +1,79 @@
+package projects.restaurant;
+
+// ============================================================================
+// SAME STATE PATTERN FROM PREVIOUS PHASES
+// ============================================================================
+
+// Flyweight, table-driven lifecycle: each constant is a shared, stateless state
+// object, so moving an order between states allocates nothing and the legality
+// of any transition is a single array lookup.
+//
+//   PENDING -> CONFIRMED -> PREPARING -> READY -> IN_TRANSIT -> DELIVERED
+//   PENDING, CONFIRMED -> CANCELLED
+enum OrderState {
+    PENDING("✅ Order confirmed! Moving to preparation...", true, true),
+    CONFIRMED("👨‍🍳 Kitchen started preparing your order...", true, false),
+    PREPARING("🍕 Order is ready for pickup/delivery!", false, false),
+    READY("🚚 Order is out for delivery!", false, false),
+    IN_TRANSIT("🎉 Order delivered successfully!", false, false),
+    DELIVERED("✨ Order already delivered! No further action needed.", false, false),
+    CANCELLED("❌ Order was cancelled. No further processing possible.", false, false);
+
+    private static final OrderState[] STATES = values();
+    private static final OrderState[] NEXT = new OrderState[STATES.length];
+    private static final boolean[][] LEGAL = new boolean[STATES.length][STATES.length];
+
+    static {
+        NEXT[PENDING.ordinal()] = CONFIRMED;
+        NEXT[CONFIRMED.ordinal()] = PREPARING;
+        NEXT[PREPARING.ordinal()] = READY;
+        NEXT[READY.ordinal()] = IN_TRANSIT;
+        NEXT[IN_TRANSIT.ordinal()] = DELIVERED;
+        for (OrderState state : STATES) {
+            if (NEXT[state.ordinal()] != null) {
+                LEGAL[state.ordinal()][NEXT[state.ordinal()].ordinal()] = true;
+            }
+            if (state.cancellable) {
+                LEGAL[state.ordinal()][CANCELLED.ordinal()] = true;
+            }
+        }
+    }
+
+    private final String nextStepMessage;
+    private final boolean cancellable;
+    private final boolean modifiable;
+
+    OrderState(String nextStepMessage, boolean cancellable, boolean modifiable) {
+        this.nextStepMessage = nextStepMessage;
+        this.cancellable = cancellable;
+        this.modifiable = modifiable;
+    }
+
+    public static OrderState fromOrdinal(int ordinal) {
+        return STATES[ordinal];
+    }
+
+    public void nextStep(Order order) {
+        System.out.println(nextStepMessage);
+        OrderState next = NEXT[ordinal()];
+        if (next != null) {
+            order.setState(next);
+        }
+    }
+
+    public void cancel(Order order) {
+        if (canCancel()) {
+            order.setState(CANCELLED);
+        } else {
+            System.out.println("❌ Cannot cancel order in " + getStatusName() + " state");
+        }
+    }
+
+    // null once the order is DELIVERED or CANCELLED
+    public OrderState next() { return NEXT[ordinal()]; }
+    public boolean canTransitionTo(OrderState target) { return LEGAL[ordinal()][target.ordinal()]; }
+    public boolean isTerminal() { return NEXT[ordinal()] == null; }
+    public boolean canCancel() { return cancellable; }
+    public boolean canModify() { return modifiable; }
+    public String getStatusName() { return name(); }
+}
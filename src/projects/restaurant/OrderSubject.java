@@ -0,0 +1,46 @@
+package projects.restaurant;
+
+// ============================================================================
+// ORDER SUBJECT - publishes an order's events
+// ============================================================================
+
+// Observable subject - holds a single reference to the bus it publishes to
+abstract class OrderSubject {
+    private volatile OrderEventBus eventBus;
+
+    public void attachEventBus(OrderEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    public OrderEventBus getEventBus() {
+        return eventBus;
+    }
+
+    protected void notifyOrderPlaced(Order order) {
+        OrderEventBus bus = eventBus;
+        if (bus != null) {
+            bus.publishOrderPlaced(order);
+        }
+    }
+
+    protected void notifyOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        OrderEventBus bus = eventBus;
+        if (bus != null) {
+            bus.publishOrderStatusChanged(order, previousStatus, newStatus);
+        }
+    }
+
+    protected void notifyOrderCancelled(Order order) {
+        OrderEventBus bus = eventBus;
+        if (bus != null) {
+            bus.publishOrderCancelled(order);
+        }
+    }
+
+    protected void notifyPaymentProcessed(Order order, PaymentResult paymentResult) {
+        OrderEventBus bus = eventBus;
+        if (bus != null) {
+            bus.publishPaymentProcessed(order, paymentResult);
+        }
+    }
+}
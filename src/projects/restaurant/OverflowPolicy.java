@@ -0,0 +1,13 @@
+package projects.restaurant;
+
+// ============================================================================
+// ASYNC OVERFLOW POLICY
+// ============================================================================
+
+// What to do when an observer's queue is full
+enum OverflowPolicy {
+    BLOCK,        // block up to N ms (the observer's blockMillis) for space, then drop oldest; the
+                  // caller usually holds the order's lock, so an unbounded wait would stall that order
+    DROP_OLDEST,  // oldest queued event is discarded to make room
+    COALESCE      // pending status changes of the same order are merged; if still full, drop oldest
+}
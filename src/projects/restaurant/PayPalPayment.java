@@ -0,0 +1,38 @@
+package projects.restaurant;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// ============================================================================
+// PAYPAL PAYMENT
+// ============================================================================
+
+class PayPalPayment implements PaymentStrategy {
+    private final String email;
+
+    public PayPalPayment(String email) {
+        this.email = email;
+    }
+
+    @Override
+    public PaymentResult processPayment(long amountCents, String orderId) {
+        return processPaymentAsync(amountCents, orderId, Runnable::run).join();
+    }
+
+    // PayPal answers after ~800 ms; the wait is a scheduled callback on the payment
+    // processor's pool, not a sleeping thread
+    @Override
+    public CompletableFuture<PaymentResult> processPaymentAsync(long amountCents, String orderId, Executor executor) {
+        System.out.println("🅿️ Processing PayPal payment of " + Money.format(amountCents));
+        return CompletableFuture.supplyAsync(() -> {
+            String transactionId = IdGenerator.getDefault().nextId("PP-");
+            return new PaymentResult(true, transactionId, "PayPal payment completed", "PayPal");
+        }, CompletableFuture.delayedExecutor(800, TimeUnit.MILLISECONDS, executor));
+    }
+
+    @Override
+    public String getPaymentType() {
+        return "PayPal";
+    }
+}
@@ -0,0 +1,85 @@
+package projects.restaurant;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.time.Duration;
+
+// ============================================================================
+// PAYMENT PROCESSOR
+// ============================================================================
+
+class PaymentProcessor implements AutoCloseable {
+    static final int DEFAULT_THREADS = 32;
+    static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    // Stateless apart from immutable configuration: the strategy travels with each
+    // request, so one processor is shared by all concurrent checkouts
+    private final Duration timeout;
+    // Runs gateway callbacks and strategies that only offer a blocking processPayment.
+    // Bounded in threads and queue: a hung gateway can tie up at most its threads (a
+    // timed-out payment keeps one until the strategy returns), and once the queue is
+    // full further payments fail at once instead of piling up.
+    private final ExecutorService executor;
+
+    public PaymentProcessor() {
+        this(DEFAULT_TIMEOUT, newBoundedExecutor(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY));
+    }
+
+    public PaymentProcessor(Duration timeout, ExecutorService executor) {
+        this.timeout = timeout;
+        this.executor = executor;
+    }
+
+    static ExecutorService newBoundedExecutor(int threads, int queueCapacity) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "payment");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public PaymentResult processPayment(PaymentStrategy strategy, long amountCents, String orderId) {
+        return processPaymentAsync(strategy, amountCents, orderId).join();
+    }
+
+    // Never completes exceptionally: timeouts, gateway errors and a full payment queue
+    // become failed results
+    public CompletableFuture<PaymentResult> processPaymentAsync(PaymentStrategy strategy, long amountCents, String orderId) {
+        CompletableFuture<PaymentResult> authorization;
+        try {
+            authorization = strategy.processPaymentAsync(amountCents, orderId, executor);
+        } catch (RuntimeException e) {
+            authorization = CompletableFuture.failedFuture(e);
+        }
+        return authorization
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    String message = cause instanceof TimeoutException
+                            ? "Payment gateway timed out after " + timeout.toMillis() + " ms"
+                            : "Payment error: " + cause.getMessage();
+                    return new PaymentResult(false, null, message, strategy.getPaymentType());
+                });
+    }
+
+    // Lets queued payments finish; callbacks that arrive later fail their payment
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
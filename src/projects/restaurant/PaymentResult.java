@@ -0,0 +1,30 @@
+package projects.restaurant;
+
+// ============================================================================
+// PAYMENT RESULT
+// ============================================================================
+
+class PaymentResult {
+    private final boolean success;
+    private final String transactionId;
+    private final String message;
+    private final String paymentMethod;
+
+    public PaymentResult(boolean success, String transactionId, String message, String paymentMethod) {
+        this.success = success;
+        this.transactionId = transactionId;
+        this.message = message;
+        this.paymentMethod = paymentMethod;
+    }
+
+    public boolean isSuccess() { return success; }
+    public String getTransactionId() { return transactionId; }
+    public String getMessage() { return message; }
+    public String getPaymentMethod() { return paymentMethod; }
+
+    @Override
+    public String toString() {
+        return String.format("Payment[%s]: %s (TX: %s)",
+                paymentMethod, message, transactionId);
+    }
+}
@@ -0,0 +1,20 @@
+package projects.restaurant;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// ============================================================================
+// SAME PAYMENT SYSTEM FROM PHASE 5
+// ============================================================================
+
+interface PaymentStrategy {
+    PaymentResult processPayment(long amountCents, String orderId);
+    String getPaymentType();
+
+    // Non-blocking variant. executor is the payment processor's bounded pool: gateways
+    // that answer asynchronously complete on it, and purely blocking strategies run on it
+    // so callers never block.
+    default CompletableFuture<PaymentResult> processPaymentAsync(long amountCents, String orderId, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> processPayment(amountCents, orderId), executor);
+    }
+}
@@ -0,0 +1,81 @@
+package projects.restaurant;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// ============================================================================
+// PLACE ORDER COMMAND
+// ============================================================================
+
+class PlaceOrderCommand implements Command {
+    private final OrderManager orderManager;
+    private final Order order;
+    private final PaymentProcessor paymentProcessor;
+    private final PaymentStrategy paymentStrategy;
+    private final Executor placementExecutor;
+
+    // placementExecutor finishes async placements (event log append and ORDER_PLACED
+    // fan-out), so that work never runs on the payment threads
+    public PlaceOrderCommand(OrderManager orderManager, Order order, PaymentProcessor paymentProcessor,
+                             PaymentStrategy paymentStrategy, Executor placementExecutor) {
+        this.orderManager = orderManager;
+        this.order = order;
+        this.paymentProcessor = paymentProcessor;
+        this.paymentStrategy = paymentStrategy;
+        this.placementExecutor = placementExecutor;
+    }
+
+    @Override
+    public boolean execute() {
+        // Process payment first
+        return completePlacement(paymentProcessor.processPayment(
+                paymentStrategy, order.getTotalCents(), order.getOrderId()));
+    }
+
+    // Many authorizations can be in flight at once; placement finishes when the gateway answers
+    @Override
+    public CompletableFuture<Boolean> executeAsync() {
+        return paymentProcessor.processPaymentAsync(paymentStrategy, order.getTotalCents(), order.getOrderId())
+                .thenApplyAsync(this::completePlacement, placementExecutor);
+    }
+
+    private boolean completePlacement(PaymentResult paymentResult) {
+        order.setPaymentResult(paymentResult);
+
+        if (paymentResult.isSuccess()) {
+            // Held together so the placement is published before any transition on this order
+            synchronized (order) {
+                orderManager.addOrderDirect(order);
+                // Trigger order placed notification
+                try {
+                    order.triggerOrderPlacedNotification();
+                } catch (RuntimeException e) {
+                    orderManager.discardOrder(order); // the event log refused the placement
+                    throw e;
+                }
+            }
+            System.out.println("✅ Executed: Order " + order.getOrderId() + " placed and paid");
+            return true;
+        } else {
+            System.out.println("❌ Failed: Payment failed for Order " + order.getOrderId());
+            return false;
+        }
+    }
+
+    @Override
+    public void undo() {
+        orderManager.removeOrderDirect(order.getOrderId());
+        System.out.println("↩️ Undone: Order " + order.getOrderId() + " removed");
+    }
+
+    @Override
+    public String getDescription() {
+        String paymentInfo = order.isPaid() ? order.getPaymentResult().getPaymentMethod() : "Payment Failed";
+        return "Place Order " + order.getOrderId() + " (" + paymentInfo + ")";
+    }
+
+    @Override
+    public Order getTargetOrder() {
+        return order;
+    }
+}
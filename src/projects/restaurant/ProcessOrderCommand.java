@@ -0,0 +1,60 @@
+package projects.restaurant;
+
+// ============================================================================
+// PROCESS ORDER COMMAND
+// ============================================================================
+
+class ProcessOrderCommand implements Command {
+    private final OrderManager orderManager;
+    private final String orderId;
+    private final OrderState expectedState; // null: advance from whatever state the order is in
+    private OrderState previousState;
+
+    public ProcessOrderCommand(OrderManager orderManager, String orderId) {
+        this(orderManager, orderId, null);
+    }
+
+    // Advances only if the order is still in expectedState, e.g. when a background
+    // component (the kitchen) races manual processing or an undo
+    public ProcessOrderCommand(OrderManager orderManager, String orderId, OrderState expectedState) {
+        this.orderManager = orderManager;
+        this.orderId = orderId;
+        this.expectedState = expectedState;
+    }
+
+    @Override
+    public boolean execute() {
+        Order order = orderManager.getOrder(orderId);
+        if (order == null) {
+            return false;
+        }
+        synchronized (order) {
+            if (expectedState != null && order.getCurrentState() != expectedState) {
+                return false;
+            }
+            previousState = order.getCurrentState();
+            order.processNextStep();
+        }
+        System.out.println("✅ Executed: Order " + orderId + " status updated");
+        return true;
+    }
+
+    @Override
+    public void undo() {
+        Order order = orderManager.getOrder(orderId);
+        if (order != null && previousState != null) {
+            order.restoreState(previousState);
+            System.out.println("↩️ Undone: Order " + orderId + " status reverted");
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Process Order " + orderId;
+    }
+
+    @Override
+    public Order getTargetOrder() {
+        return orderManager.getOrder(orderId);
+    }
+}
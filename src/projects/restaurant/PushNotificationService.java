@@ -0,0 +1,65 @@
+package projects.restaurant;
+
+// ============================================================================
+// PUSH NOTIFICATIONS
+// ============================================================================
+
+// Push notification service
+class PushNotificationService implements OrderObserver {
+    private final String serviceName = "Push Notification";
+
+    @Override
+    public void onOrderPlaced(Order order) {
+        String title = "Order Placed";
+        String message = String.format("Order %s placed successfully! Total: %s",
+                order.getOrderId(), Money.format(order.getTotalCents()));
+        sendPushNotification(title, message, order.getOrderId());
+    }
+
+    @Override
+    public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        String title = "Order Update";
+        String message = createPushMessage(order, newStatus);
+        sendPushNotification(title, message, order.getOrderId());
+    }
+
+    @Override
+    public void onOrderCancelled(Order order) {
+        String title = "Order Cancelled";
+        String message = String.format("Order %s has been cancelled", order.getOrderId());
+        sendPushNotification(title, message, order.getOrderId());
+    }
+
+    @Override
+    public void onPaymentProcessed(Order order, PaymentResult paymentResult) {
+        if (paymentResult.isSuccess()) {
+            String title = "Payment Successful";
+            String message = String.format("%s paid via %s", Money.format(order.getTotalCents()), paymentResult.getPaymentMethod());
+            sendPushNotification(title, message, order.getOrderId());
+        }
+    }
+
+    private String createPushMessage(Order order, OrderState status) {
+        switch (status) {
+            case CONFIRMED:
+                return String.format("Order %s confirmed! 👨‍🍳", order.getOrderId());
+            case PREPARING:
+                return String.format("Order %s is being prepared 🍳", order.getOrderId());
+            case READY:
+                return String.format("Order %s is ready! 🍕", order.getOrderId());
+            case IN_TRANSIT:
+                return String.format("Order %s is on the way! 🚚", order.getOrderId());
+            case DELIVERED:
+                return String.format("Order %s delivered! Enjoy! 🎉", order.getOrderId());
+            default:
+                return String.format("Order %s: %s", order.getOrderId(), status);
+        }
+    }
+
+    private void sendPushNotification(String title, String message, String orderId) {
+        System.out.printf("🔔 [%s] Push notification sent%n", serviceName);
+        System.out.printf("   Title: %s%n", title);
+        System.out.printf("   Message: %s%n", message);
+        System.out.printf("   Action: View Order %s%n", orderId);
+    }
+}
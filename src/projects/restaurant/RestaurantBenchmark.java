@@ -0,0 +1,2192 @@
+package projects.restaurant;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// ============================================================================
+// STRESS TESTS AND BENCHMARKS FOR THE ORDERING SYSTEM
+// Run with a section name, e.g. `java projects.restaurant.RestaurantBenchmark stress`
+// ============================================================================
+
+public class RestaurantBenchmark {
+    private static final PrintStream CONSOLE = System.out;
+    private static final PrintStream SILENT = new PrintStream(OutputStream.nullOutputStream());
+
+    public static void main(String[] args) throws Exception {
+        String section = args.length > 0 ? args[0] : "all";
+        boolean all = section.equals("all");
+
+        if (all || section.equals("stress")) {
+            concurrentPlacementStressTest();
+        }
+        if (all || section.equals("async")) {
+            asyncNotificationLatency();
+        }
+        if (all || section.equals("fanout")) {
+            statusChangeFanOut();
+        }
+        if (all || section.equals("payments")) {
+            paymentThroughput();
+        }
+        if (all || section.equals("ids")) {
+            idGeneration();
+        }
+        if (all || section.equals("states")) {
+            stateTransitions();
+        }
+        if (all || section.equals("wal")) {
+            eventLogDurability();
+        }
+        if (all || section.equals("snapshot")) {
+            snapshotRestart();
+        }
+        if (all || section.equals("history")) {
+            boundedHistory();
+        }
+        if (all || section.equals("batch")) {
+            batchExecution();
+        }
+        if (all || section.equals("analytics")) {
+            analyticsCounters();
+        }
+        if (all || section.equals("windows")) {
+            slidingWindows();
+        }
+        if (all || section.equals("latency")) {
+            stateLatencies();
+        }
+        if (all || section.equals("money")) {
+            exactMoney();
+        }
+        if (all || section.equals("views")) {
+            readOnlyViews();
+        }
+        if (all || section.equals("catalog")) {
+            menuCatalog();
+        }
+        if (all || section.equals("search")) {
+            menuSearch();
+        }
+        if (all || section.equals("menu")) {
+            menuReload();
+        }
+        if (all || section.equals("kitchen")) {
+            kitchenScheduling();
+        }
+        if (all || section.equals("dispatch")) {
+            deliveryDispatch();
+        }
+        if (all || section.equals("admission")) {
+            admissionControl();
+        }
+    }
+
+    // Notification services print every event; keep the console for results only
+    static void silenceConsole() {
+        System.setOut(SILENT);
+    }
+
+    static void restoreConsole() {
+        System.setOut(CONSOLE);
+    }
+
+    static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("CHECK FAILED: " + message);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Dozens of threads place, process and cancel orders on one restaurant at once.
+    // Verifies that no order is lost or duplicated and that the indexes agree.
+    // ------------------------------------------------------------------------
+    static void concurrentPlacementStressTest() throws Exception {
+        final int threads = 48;
+        final int ordersPerThread = 250;
+
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        MenuItem pizza = restaurant.findMenuItem("Pizza", 1);
+        MenuItem cola = restaurant.findMenuItem("Beverages", 1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Order>>> results = new ArrayList<>();
+
+        long began = System.nanoTime();
+        try {
+            for (int t = 0; t < threads; t++) {
+                final int worker = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    List<Order> placed = new ArrayList<>();
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        Order order = restaurant.createOrderBuilder("Customer " + worker, "+1-555-" + worker)
+                                .addItem(pizza, 1)
+                                .addItem(cola, 2)
+                                .build();
+                        if (restaurant.placeOrder(order)) {
+                            placed.add(order);
+                            restaurant.processOrder(order.getOrderId()); // PENDING -> CONFIRMED
+                            if (i % 5 == 0) {
+                                restaurant.cancelOrder(order.getOrderId());
+                            }
+                        }
+                    }
+                    return placed;
+                }));
+            }
+            start.countDown();
+
+            List<Order> allPlaced = new ArrayList<>();
+            for (Future<List<Order>> result : results) {
+                allPlaced.addAll(result.get());
+            }
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+            restoreConsole();
+
+            Set<String> ids = new HashSet<>();
+            for (Order order : allPlaced) {
+                check(ids.add(order.getOrderId()), "duplicate order id " + order.getOrderId());
+                check(restaurant.getOrder(order.getOrderId()) == order, "lost order " + order.getOrderId());
+            }
+
+            int stored = restaurant.getAllOrders().size();
+            int confirmed = restaurant.getOrdersByStatus(OrderState.CONFIRMED).size();
+            int cancelled = restaurant.getOrdersByStatus(OrderState.CANCELLED).size();
+            int expectedCancelled = threads * ((ordersPerThread + 4) / 5);
+
+            check(allPlaced.size() == threads * ordersPerThread, "placed " + allPlaced.size());
+            check(stored == allPlaced.size(), "stored " + stored + " of " + allPlaced.size());
+            check(cancelled == expectedCancelled, "cancelled " + cancelled + ", expected " + expectedCancelled);
+            check(confirmed + cancelled == stored, "status index holds " + (confirmed + cancelled) + " of " + stored);
+            for (int t = 0; t < threads; t++) {
+                int perCustomer = restaurant.getOrdersByCustomer("+1-555-" + t).size();
+                check(perCustomer == ordersPerThread, "customer " + t + " has " + perCustomer + " orders");
+            }
+            int expectedHistory = allPlaced.size() * 2 + expectedCancelled;
+            check(restaurant.getCommandHistorySize() == expectedHistory,
+                    "history " + restaurant.getCommandHistorySize() + ", expected " + expectedHistory);
+
+            System.out.printf("✅ Stress test passed: %d threads, %d orders, %d cancelled in %d ms%n",
+                    threads, stored, cancelled, elapsedMillis);
+        } finally {
+            restoreConsole();
+            pool.shutdownNow();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Order processing latency with a slow notification channel attached,
+    // synchronous delivery versus per-observer async queues.
+    // ------------------------------------------------------------------------
+    static void asyncNotificationLatency() throws Exception {
+        final int orders = 200;
+        CONSOLE.println("\nNotification dispatch with a 2 ms observer (" + orders + " orders, 6 events each)");
+        // Async workers keep printing after the timed loop, so stay silent for the whole run
+        silenceConsole();
+        try {
+            for (OverflowPolicy policy : new OverflowPolicy[]{null, OverflowPolicy.BLOCK,
+                    OverflowPolicy.DROP_OLDEST, OverflowPolicy.COALESCE}) {
+                SimpleRestaurant restaurant = new SimpleRestaurant();
+                if (policy != null) {
+                    restaurant.enableAsyncNotifications(policy, 256);
+                }
+                restaurant.addNotificationObserver(new SlowObserver(2));
+                MenuItem pizza = restaurant.findMenuItem("Pizza", 1);
+
+                long began = System.nanoTime();
+                for (int i = 0; i < orders; i++) {
+                    Order order = restaurant.createOrderBuilder("Customer", "+1-555-0100")
+                            .addItem(pizza, 1)
+                            .build();
+                    restaurant.placeOrder(order);
+                    for (int step = 0; step < 4; step++) {
+                        restaurant.processOrder(order.getOrderId());
+                    }
+                }
+                double perOrderMillis = (System.nanoTime() - began) / 1e6 / orders;
+                CONSOLE.printf("  %-12s %.3f ms per order%n", policy == null ? "SYNC" : policy, perOrderMillis);
+                for (AsyncOrderObserver queue : restaurant.getNotificationQueues()) {
+                    CONSOLE.println("      " + queue);
+                }
+                restaurant.shutdown();
+            }
+        } finally {
+            restoreConsole();
+        }
+
+        // BLOCK waits only as long as it was configured to, then drops the oldest event
+        final long blockMillis = 20;
+        AsyncOrderObserver blocking = new AsyncOrderObserver(new SlowObserver(500), 1, OverflowPolicy.BLOCK, blockMillis);
+        Order order = new Order.Builder("Customer", "+1-555-0100")
+                .addItem(new MenuItem("Pizza", "Cheese", 9.99), 1).build();
+        blocking.onOrderPlaced(order); // taken by the worker, which then sleeps
+        Thread.sleep(50);
+        blocking.onOrderPlaced(order); // fills the queue
+        long began = System.nanoTime();
+        blocking.onOrderPlaced(order); // full: waits blockMillis, then drops the one queued
+        long waitedMillis = (System.nanoTime() - began) / 1_000_000;
+        long dropped = blocking.getDroppedCount();
+        blocking.close(5, TimeUnit.SECONDS);
+        check(waitedMillis >= blockMillis && waitedMillis < 400, "BLOCK waited " + waitedMillis + " ms");
+        check(dropped == 1, "BLOCK dropped " + dropped + " events");
+        CONSOLE.printf("  BLOCK with a %d ms bound: full queue held the publisher %d ms, then dropped the oldest%n",
+                blockMillis, waitedMillis);
+    }
+
+    // Stand-in for a slow notification channel (remote email/SMS gateway)
+    static class SlowObserver implements OrderObserver {
+        private final long delayMillis;
+
+        SlowObserver(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onOrderPlaced(Order order) { pause(); }
+
+        @Override
+        public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) { pause(); }
+
+        @Override
+        public void onOrderCancelled(Order order) { pause(); }
+
+        @Override
+        public void onPaymentProcessed(Order order, PaymentResult paymentResult) { pause(); }
+    }
+
+    // ------------------------------------------------------------------------
+    // Cost of publishing one status change to a typical subscriber set:
+    // every observer called (filtering inside the observer, as before) versus
+    // routing through the declared-interest dispatch table.
+    // ------------------------------------------------------------------------
+    static void statusChangeFanOut() {
+        final OrderState[] statuses = {OrderState.CONFIRMED, OrderState.PREPARING, OrderState.READY,
+                OrderState.IN_TRANSIT, OrderState.DELIVERED, OrderState.CANCELLED};
+        final int rounds = 3_000_000;
+
+        silenceConsole();
+        Order order = new Order.Builder("Bench", "+1-555-0000")
+                .addItem(new MenuItem("Item", "Bench item", 1.00), 1)
+                .build();
+        OrderEventBus unfiltered = new OrderEventBus();
+        OrderEventBus filtered = new OrderEventBus();
+        CountingObserver[] observers = {
+                new CountingObserver(),                                         // email
+                new CountingObserver(OrderState.READY, OrderState.IN_TRANSIT,
+                        OrderState.DELIVERED),                                  // SMS
+                new CountingObserver(),                                         // push
+                new CountingObserver(),                                         // dashboard
+                new CountingObserver(OrderState.DELIVERED),                     // analytics
+                new CountingObserver(OrderState.READY),                         // dispatch screen
+                new CountingObserver(OrderState.CANCELLED),                     // refunds
+        };
+        for (CountingObserver observer : observers) {
+            unfiltered.subscribe(observer, OrderEventInterest.all());
+            filtered.subscribe(observer);
+        }
+        restoreConsole();
+
+        CONSOLE.printf("%nStatus-change fan-out, %d subscribers (%d rounds x %d statuses)%n",
+                observers.length, rounds, statuses.length);
+        for (int warmup = 0; warmup < 2; warmup++) {
+            publishRounds(unfiltered, order, statuses, rounds / 4);
+            publishRounds(filtered, order, statuses, rounds / 4);
+        }
+        double before = publishRounds(unfiltered, order, statuses, rounds);
+        double after = publishRounds(filtered, order, statuses, rounds);
+        CONSOLE.printf("  call every observer:      %6.1f ns per status change%n", before);
+        CONSOLE.printf("  interest dispatch table:  %6.1f ns per status change%n", after);
+    }
+
+    private static double publishRounds(OrderEventBus bus, Order order, OrderState[] statuses, int rounds) {
+        long began = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            for (int s = 0; s < statuses.length; s++) {
+                bus.publishOrderStatusChanged(order, OrderState.PENDING, statuses[s]);
+            }
+        }
+        return (System.nanoTime() - began) / (double) (rounds * statuses.length);
+    }
+
+    // Observer that, like the SMS and analytics services, only acts on some statuses
+    static class CountingObserver implements OrderObserver {
+        private final Set<OrderState> statuses;
+        long handled;
+
+        CountingObserver(OrderState... statuses) {
+            this.statuses = Set.of(statuses);
+        }
+
+        @Override
+        public OrderEventInterest getInterest() {
+            if (statuses.isEmpty()) {
+                return OrderEventInterest.all();
+            }
+            OrderState[] rest = statuses.stream().skip(1).toArray(OrderState[]::new);
+            return OrderEventInterest.all().onlyStatuses(statuses.iterator().next(), rest);
+        }
+
+        @Override
+        public void onOrderPlaced(Order order) { handled++; }
+
+        @Override
+        public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+            if (statuses.isEmpty() || statuses.contains(newStatus)) {
+                handled++;
+            }
+        }
+
+        @Override
+        public void onOrderCancelled(Order order) { handled++; }
+
+        @Override
+        public void onPaymentProcessed(Order order, PaymentResult paymentResult) { handled++; }
+    }
+
+    // ------------------------------------------------------------------------
+    // Checkout throughput against a 500 ms card gateway: blocking placeOrder on a
+    // fixed pool versus placeOrderAsync with every authorization in flight at once;
+    // then the same at 1k/10k/50k orders against a 20 ms gateway.
+    // ------------------------------------------------------------------------
+    static void paymentThroughput() throws Exception {
+        final int orders = 400;
+        final int poolThreads = 16;
+        CONSOLE.printf("%nCheckout throughput, %d card payments (500 ms gateway)%n", orders);
+
+        silenceConsole();
+        try {
+            SimpleRestaurant blocking = new SimpleRestaurant();
+            MenuItem pizza = blocking.findMenuItem("Pizza", 1);
+            PaymentStrategy card = new CreditCardPayment("4532123456789012", "12/26", "123", "Bench");
+            ExecutorService pool = Executors.newFixedThreadPool(poolThreads);
+            List<Future<Boolean>> pending = new ArrayList<>();
+            long began = System.nanoTime();
+            for (int i = 0; i < orders; i++) {
+                Order order = blocking.createOrderBuilder("Customer " + i, "+1-555-0100")
+                        .setPaymentStrategy(card).addItem(pizza, 1).build();
+                pending.add(pool.submit(() -> blocking.placeOrder(order)));
+            }
+            for (Future<Boolean> result : pending) {
+                result.get();
+            }
+            double blockingSeconds = (System.nanoTime() - began) / 1e9;
+            pool.shutdown();
+
+            SimpleRestaurant async = new SimpleRestaurant();
+            PlacementThreads placementThreads = new PlacementThreads();
+            async.addNotificationObserver(placementThreads);
+            List<CompletableFuture<Boolean>> inFlight = new ArrayList<>();
+            began = System.nanoTime();
+            for (int i = 0; i < orders; i++) {
+                Order order = async.createOrderBuilder("Customer " + i, "+1-555-0100")
+                        .setPaymentStrategy(card).addItem(pizza, 1).build();
+                inFlight.add(async.placeOrderAsync(order));
+            }
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0])).join();
+            double asyncSeconds = (System.nanoTime() - began) / 1e9;
+            async.shutdown();
+            blocking.shutdown();
+
+            // Placement (log append, ORDER_PLACED fan-out) runs on the restaurant's own
+            // threads, never on the common pool or the payment threads
+            check(placementThreads.names.equals(Set.of("order-placement")),
+                    "placements ran on " + placementThreads.names);
+            CONSOLE.printf("  blocking, %d threads:  %6.2f s  (%7.1f orders/s)%n",
+                    poolThreads, blockingSeconds, orders / blockingSeconds);
+            CONSOLE.printf("  async, caller thread:  %6.2f s  (%7.1f orders/s), placed on %s%n",
+                    asyncSeconds, orders / asyncSeconds, placementThreads.names);
+
+            // Same comparison at higher load against a faster gateway
+            final int intakeThreads = 64;
+            PaymentStrategy gateway = new SimulatedGatewayPayment(20);
+            CONSOLE.printf("%nCheckout at higher load, 20 ms gateway%n");
+            for (int load : new int[] {1_000, 10_000, 50_000}) {
+                SimpleRestaurant pooled = new SimpleRestaurant();
+                ExecutorService intakePool = Executors.newFixedThreadPool(intakeThreads);
+                List<Future<Boolean>> queued = new ArrayList<>(load);
+                began = System.nanoTime();
+                for (int i = 0; i < load; i++) {
+                    Order order = pooled.createOrderBuilder("Customer", "+1-555-0100")
+                            .setPaymentStrategy(gateway).addItem(pizza, 1).build();
+                    queued.add(intakePool.submit(() -> pooled.placeOrder(order)));
+                }
+                for (Future<Boolean> result : queued) {
+                    result.get();
+                }
+                double pooledSeconds = (System.nanoTime() - began) / 1e9;
+                intakePool.shutdown();
+                pooled.shutdown();
+
+                SimpleRestaurant intake = new SimpleRestaurant();
+                List<CompletableFuture<Boolean>> placing = new ArrayList<>(load);
+                began = System.nanoTime();
+                for (int i = 0; i < load; i++) {
+                    Order order = intake.createOrderBuilder("Customer", "+1-555-0100")
+                            .setPaymentStrategy(gateway).addItem(pizza, 1).build();
+                    placing.add(intake.placeOrderAsync(order));
+                }
+                CompletableFuture.allOf(placing.toArray(new CompletableFuture<?>[0])).join();
+                double intakeSeconds = (System.nanoTime() - began) / 1e9;
+                intake.shutdown();
+
+                CONSOLE.printf("  %,7d orders: blocking, %d threads %7.2f s (%8.0f/s) | async %6.2f s (%8.0f/s)%n",
+                        load, intakeThreads, pooledSeconds, load / pooledSeconds, intakeSeconds, load / intakeSeconds);
+            }
+        } finally {
+            restoreConsole();
+        }
+    }
+
+    // Names of the threads ORDER_PLACED is delivered on
+    static class PlacementThreads implements OrderObserver {
+        final Set<String> names = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void onOrderPlaced(Order order) { names.add(Thread.currentThread().getName()); }
+
+        @Override
+        public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) { }
+
+        @Override
+        public void onOrderCancelled(Order order) { }
+
+        @Override
+        public void onPaymentProcessed(Order order, PaymentResult paymentResult) { }
+    }
+
+    // Gateway stand-in with a fixed latency; blocking and non-blocking entry points
+    static class SimulatedGatewayPayment implements PaymentStrategy {
+        private final long latencyMillis;
+
+        SimulatedGatewayPayment(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public PaymentResult processPayment(long amountCents, String orderId) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new PaymentResult(true, "SIM-" + orderId, "Simulated payment", getPaymentType());
+        }
+
+        @Override
+        public CompletableFuture<PaymentResult> processPaymentAsync(long amountCents, String orderId, Executor executor) {
+            return CompletableFuture.supplyAsync(
+                    () -> new PaymentResult(true, "SIM-" + orderId, "Simulated payment", getPaymentType()),
+                    CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS, executor));
+        }
+
+        @Override
+        public String getPaymentType() {
+            return "Simulated Gateway";
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // IdGenerator throughput from many threads, and a uniqueness check
+    // ------------------------------------------------------------------------
+    static void idGeneration() throws Exception {
+        final int threads = 8;
+        final int idsPerThread = 2_000_000;
+        IdGenerator generator = new IdGenerator(7);
+        long[][] issued = new long[threads][idsPerThread];
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long[] out = issued[t];
+            done.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = generator.nextId();
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : done) {
+            f.get();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+
+        long[] all = new long[threads * idsPerThread];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(issued[t], 0, all, t * idsPerThread, idsPerThread);
+            for (int i = 1; i < idsPerThread; i++) {
+                check(issued[t][i] > issued[t][i - 1], "ids not increasing within a thread");
+            }
+        }
+        java.util.Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            check(all[i] != all[i - 1], "duplicate id " + all[i]);
+        }
+        long sample = all[all.length - 1];
+        check(IdGenerator.decode(IdGenerator.encode("ORD-", sample)) == sample, "encode/decode round trip");
+        check(IdGenerator.nodeId(sample) == 7, "node id round trip");
+        check(IdGenerator.timestampMillis(sample) <= System.currentTimeMillis() + IdGenerator.MAX_BORROW_MILLIS,
+                "ids ran more than " + IdGenerator.MAX_BORROW_MILLIS + " ms ahead of the clock");
+        IdGenerator restarted = new IdGenerator(7); // same node after a restart, recovered up to sample
+        restarted.advancePast(sample);
+        check(restarted.nextId() > sample, "restarted generator reissued a recovered id");
+
+        CONSOLE.printf("%nIdGenerator: %,d unique ids from %d threads in %.2f s (%,.0f ids/s), e.g. %s%n",
+                all.length, threads, seconds, all.length / seconds, IdGenerator.encode("ORD-", sample));
+    }
+
+    // ------------------------------------------------------------------------
+    // Order lifecycle transitions through the shared OrderState table
+    // ------------------------------------------------------------------------
+    static void stateTransitions() {
+        final int lifecycles = 2_000_000;
+        OrderState[] path = {OrderState.CONFIRMED, OrderState.PREPARING, OrderState.READY,
+                OrderState.IN_TRANSIT, OrderState.DELIVERED};
+
+        // Raw table: legality check + next-state lookup
+        long checksum = 0;
+        long began = System.nanoTime();
+        for (int i = 0; i < lifecycles * 10; i++) {
+            OrderState state = OrderState.PENDING;
+            while (state.next() != null) {
+                OrderState next = state.next();
+                if (state.canTransitionTo(next)) {
+                    checksum += next.ordinal();
+                }
+                state = next;
+            }
+        }
+        double tableNanos = (System.nanoTime() - began) / (double) lifecycles / 10 / path.length;
+
+        // Full Order.setState (includes the status line each transition prints)
+        silenceConsole();
+        Order order = new Order.Builder("Bench", "+1-555-0000")
+                .addItem(new MenuItem("Item", "Bench item", 1.00), 1)
+                .build();
+        began = System.nanoTime();
+        for (int i = 0; i < lifecycles; i++) {
+            for (OrderState next : path) {
+                order.setState(next);
+            }
+            order.restoreState(OrderState.PENDING);
+        }
+        double orderNanos = (System.nanoTime() - began) / (double) lifecycles / (path.length + 1);
+        restoreConsole();
+
+        CONSOLE.printf("%nState transitions (checksum %d)%n", checksum);
+        CONSOLE.printf("  table lookup + legality check: %6.2f ns per transition%n", tableNanos);
+        CONSOLE.printf("  Order.setState:                %6.1f ns per transition (%,.0f/s)%n",
+                orderNanos, 1e9 / orderNanos);
+    }
+
+    // ------------------------------------------------------------------------
+    // Write-ahead log: a restaurant restarted on the same log must come back with
+    // exactly the orders and states it had; then raw append and replay throughput
+    // ------------------------------------------------------------------------
+    static void eventLogDurability() throws Exception {
+        Path dir = Files.createTempDirectory("restaurant-wal");
+
+        // Crash recovery: place, advance, cancel and undo, then reopen
+        silenceConsole();
+        Path logFile = dir.resolve("orders.log");
+        SimpleRestaurant before = new SimpleRestaurant();
+        before.openEventLog(logFile, 5);
+        MenuItem pizza = before.findMenuItem("Pizza", 1);
+        for (int i = 0; i < 2_000; i++) {
+            Order order = before.createOrderBuilder("Customer " + i, "+1-555-" + (i % 50))
+                    .addItem(pizza, 1 + i % 3)
+                    .setSpecialInstructions(i % 2 == 0 ? "No onions" : "")
+                    .build();
+            before.placeOrder(order);
+            for (int step = 0; step < i % 6; step++) {
+                before.processOrder(order.getOrderId());
+            }
+            if (i % 7 == 0) {
+                before.cancelOrder(order.getOrderId());
+            }
+        }
+        before.undo(); // last command: its effect must be in the log too
+        before.shutdown();
+
+        SimpleRestaurant after = new SimpleRestaurant();
+        int recovered = after.openEventLog(logFile, 5);
+        after.shutdown();
+        restoreConsole();
+
+        check(recovered == before.getAllOrders().size(), "recovered " + recovered + " of " + before.getAllOrders().size());
+        for (Order original : before.getAllOrders()) {
+            Order copy = after.getOrder(original.getOrderId());
+            check(copy != null, "order lost: " + original.getOrderId());
+            check(copy.getCurrentState() == original.getCurrentState(), "state differs for " + original.getOrderId());
+            check(copy.isPaid() == original.isPaid(), "payment differs for " + original.getOrderId());
+            check(copy.getTotalCents() == original.getTotalCents(), "total differs");
+        }
+        for (OrderState state : OrderState.values()) {
+            check(after.getOrdersByStatus(state).size() == before.getOrdersByStatus(state).size(),
+                    "status index differs for " + state);
+        }
+        CONSOLE.printf("%nEvent log recovery: %,d orders restored with identical states and payments%n", recovered);
+
+        // Write-ahead: an event the log cannot append fails the command and leaves the order as it was
+        silenceConsole();
+        SimpleRestaurant failing = new SimpleRestaurant();
+        failing.openEventLog(dir.resolve("closed.log"), 5);
+        Order first = failing.createOrderBuilder("Customer", "+1-555-0100").addItem(pizza, 1).build();
+        Order second = failing.createOrderBuilder("Customer", "+1-555-0101").addItem(pizza, 1).build();
+        failing.placeOrder(first);
+        failing.placeOrder(second);
+        failing.getEventLog().close();
+        OrderState firstState = first.getCurrentState();
+        int inFirstState = failing.getOrdersByStatus(firstState).size();
+        List<String> refused = new ArrayList<>();
+        try {
+            failing.processOrder(first.getOrderId());
+        } catch (IllegalStateException e) {
+            refused.add("process");
+        }
+        try {
+            failing.processOrders(List.of(first.getOrderId(), second.getOrderId()));
+        } catch (IllegalStateException e) {
+            refused.add("batch");
+        }
+        try {
+            failing.cancelOrder(first.getOrderId());
+        } catch (IllegalStateException e) {
+            refused.add("cancel");
+        }
+        Order third = failing.createOrderBuilder("Customer", "+1-555-0102").addItem(pizza, 1).build();
+        try {
+            failing.placeOrder(third);
+        } catch (IllegalStateException e) {
+            refused.add("place");
+        }
+        long recorded = failing.getCommandHistorySize();
+        failing.shutdown();
+        restoreConsole();
+        check(refused.equals(List.of("process", "batch", "cancel", "place")), "commands not refused: " + refused);
+        check(first.getCurrentState() == firstState && second.getCurrentState() == firstState,
+                "state changed without a log record");
+        check(failing.getOrdersByStatus(firstState).size() == inFirstState, "observers saw an unlogged transition");
+        check(failing.getOrder(third.getOrderId()) == null, "unlogged placement kept");
+        check(recorded == 2, "refused command recorded in history");
+        CONSOLE.printf("Event log write-ahead: %d commands refused on a closed log, orders unchanged%n",
+                refused.size());
+
+        // Raw append throughput: placement + five transitions per order from several threads
+        final int threads = 4;
+        final int ordersPerThread = 50_000;
+        OrderState[] path = {OrderState.CONFIRMED, OrderState.PREPARING, OrderState.READY,
+                OrderState.IN_TRANSIT, OrderState.DELIVERED};
+        MenuItem burger = new MenuItem("Cheeseburger", "Beef with cheese", 9.99);
+        for (long groupCommitMillis : new long[] {10, 0}) {
+            int perThread = groupCommitMillis == 0 ? 500 : ordersPerThread;
+            Path file = dir.resolve("append-" + groupCommitMillis + ".log");
+            OrderEventLog log = new OrderEventLog(file, groupCommitMillis);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                done.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        Order order = new Order.Builder("Customer", "+1-555-0100")
+                                .setDeliveryAddress("221B Baker Street")
+                                .addItem(burger, 2, List.of("Extra cheese"))
+                                .build();
+                        log.onOrderPlaced(order);
+                        OrderState previous = OrderState.PENDING;
+                        for (OrderState next : path) {
+                            log.onOrderStatusChanged(order, previous, next);
+                            previous = next;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<?> f : done) {
+                f.get();
+            }
+            log.sync();
+            double seconds = (System.nanoTime() - began) / 1e9;
+            pool.shutdown();
+            long records = log.getAppendedRecords();
+            CONSOLE.printf("  append, group commit %2d ms: %,9d records in %6.2f s (%,10.0f records/s, %,d syncs, %.1f MB)%n",
+                    groupCommitMillis, records, seconds, records / seconds, log.getSyncCount(),
+                    log.getSizeBytes() / 1e6);
+
+            began = System.nanoTime();
+            Map<Long, Order> orders = log.recoverOrders();
+            seconds = (System.nanoTime() - began) / 1e9;
+            log.close();
+            check(orders.size() == threads * perThread, "replayed " + orders.size() + " orders");
+            for (Order order : orders.values()) {
+                check(order.getCurrentState() == OrderState.DELIVERED, "replayed order not delivered");
+            }
+            CONSOLE.printf("  replay:                    %,9d orders in %6.2f s (%,10.0f records/s)%n",
+                    orders.size(), seconds, records / seconds);
+        }
+
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    // ------------------------------------------------------------------------
+    // Snapshots: snapshot + log tail restores the same restaurant; then a million-order
+    // snapshot taken while another thread keeps placing and advancing orders
+    // ------------------------------------------------------------------------
+    static void snapshotRestart() throws Exception {
+        Path dir = Files.createTempDirectory("restaurant-snapshot");
+        Path logFile = dir.resolve("orders.log");
+        Path snapshotFile = dir.resolve("orders.snapshot");
+
+        // Snapshot halfway through, keep going, then "crash" (no shutdown, no final snapshot)
+        silenceConsole();
+        SimpleRestaurant before = new SimpleRestaurant();
+        before.openEventLog(logFile, 5);
+        OrderSnapshotter snapshotter = before.startSnapshots(snapshotFile, 60_000);
+        MenuItem pizza = before.findMenuItem("Pizza", 2);
+        List<Order> placed = new ArrayList<>();
+        long logBytesBefore = 0;
+        for (int i = 0; i < 2_000; i++) {
+            if (i == 1_000) {
+                logBytesBefore = before.getEventLog().getSizeBytes();
+                snapshotter.snapshotNow();
+            }
+            Order order = before.createOrderBuilder("Customer " + i, "+1-555-" + (i % 50))
+                    .addItem(pizza, 1 + i % 3, List.of("Extra cheese"))
+                    .build();
+            before.placeOrder(order);
+            placed.add(order);
+            for (int step = 0; step < i % 6; step++) {
+                before.processOrder(order.getOrderId());
+            }
+        }
+        for (int i = 0; i < placed.size(); i += 5) {
+            before.processOrder(placed.get(i).getOrderId()); // moves orders the snapshot already holds
+        }
+        before.getEventLog().sync();
+
+        long logBytesCompacted = before.getEventLog().getCompactions() > 0 ? logBytesBefore : -1;
+
+        SimpleRestaurant after = new SimpleRestaurant();
+        int recovered = after.openEventLog(logFile, snapshotFile, 5);
+        long highest = 0;
+        for (Order order : before.getAllOrders()) {
+            highest = Math.max(highest, order.getOrderNumber());
+        }
+        Order next = after.createOrderBuilder("After restart", "+1-555-0100").addItem(pizza, 1).build();
+        after.shutdown();
+        before.shutdown();
+        restoreConsole();
+
+        check(recovered == before.getAllOrders().size(), "recovered " + recovered);
+        for (Order original : before.getAllOrders()) {
+            Order copy = after.getOrder(original.getOrderId());
+            check(copy != null, "order lost: " + original.getOrderId());
+            check(copy.getCurrentState() == original.getCurrentState(), "state differs for " + original.getOrderId());
+            check(copy.isPaid() == original.isPaid(), "payment differs for " + original.getOrderId());
+        }
+        check(logBytesCompacted > 0, "log not compacted after the snapshot");
+        check(next.getOrderNumber() > highest, "order number reissued after restart");
+        CONSOLE.printf("%nSnapshot + log tail: %,d orders restored with identical states"
+                + " (log compacted from %,d bytes at the snapshot)%n", recovered, logBytesCompacted);
+
+        // A million orders, snapshotted while a writer keeps adding and advancing orders,
+        // then loaded the way a restart would (the original orders are gone by then)
+        final int orderCount = 1_000_000;
+        int written = snapshotUnderLoad(snapshotFile, orderCount);
+        System.gc();
+        long began = System.nanoTime();
+        OrderSnapshotter.Loaded loaded = OrderSnapshotter.load(snapshotFile);
+        double loadSeconds = (System.nanoTime() - began) / 1e9;
+        check(loaded.orders.size() == written, "loaded " + loaded.orders.size() + " of " + written);
+        CONSOLE.printf("  load:  %,d orders in %.2f s%n", loaded.orders.size(), loadSeconds);
+
+        Files.write(snapshotFile, new byte[] {0x52, 0x53}); // torn to a couple of bytes
+        try {
+            OrderSnapshotter.load(snapshotFile);
+            check(false, "truncated snapshot loaded");
+        } catch (IllegalStateException expected) {
+            // "Corrupt or unsupported snapshot"
+        }
+
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static int snapshotUnderLoad(Path snapshotFile, int orderCount) throws Exception {
+        OrderManager manager = new OrderManager(new OrderEventBus());
+        MenuItem burger = new MenuItem("Cheeseburger", "Beef with cheese", 9.99);
+        MenuItem cola = new MenuItem("Coca Cola", "Refreshing cola", 2.99);
+        IdGenerator ids = new IdGenerator(3);
+        for (int i = 0; i < orderCount; i++) {
+            manager.addOrderDirect(benchmarkOrder(ids, i, burger, cola, OrderState.values()[i % 6]));
+        }
+
+        OrderSnapshotter big = new OrderSnapshotter(manager, snapshotFile, null);
+        AtomicBoolean snapshotting = new AtomicBoolean(true);
+        long[] writerStats = new long[2]; // operations, worst operation nanos
+        Thread writer = new Thread(() -> {
+            while (snapshotting.get()) {
+                if (writerStats[0] % 20 == 0) {
+                    LockSupport.parkNanos(1_000_000); // a busy dinner service, not a flood
+                }
+                long began = System.nanoTime();
+                Order order = benchmarkOrder(ids, (int) writerStats[0], burger, cola, OrderState.PENDING);
+                manager.addOrderDirect(order);
+                synchronized (order) {
+                    order.recoverState(OrderState.CONFIRMED);
+                }
+                writerStats[1] = Math.max(writerStats[1], System.nanoTime() - began);
+                writerStats[0]++;
+            }
+        }, "snapshot-writer");
+        writer.start();
+        long began = System.nanoTime();
+        int written = big.snapshotNow();
+        double writeSeconds = (System.nanoTime() - began) / 1e9;
+        snapshotting.set(false);
+        writer.join();
+        check(written >= orderCount, "snapshot missed orders");
+
+        CONSOLE.printf("  write: %,d orders, %.1f MB in %.2f s while the writer placed %,d orders (worst %.2f ms)%n",
+                written, big.getLastSizeBytes() / 1e6, writeSeconds, writerStats[0], writerStats[1] / 1e6);
+        return written;
+    }
+
+    // 50,000 regular customers; every payment has its own transaction ID
+    private static Order benchmarkOrder(IdGenerator ids, int i, MenuItem main, MenuItem drink, OrderState state) {
+        int customer = i % 50_000;
+        PaymentResult payment = new PaymentResult(true, ids.nextId("CC-"), "Payment successful", "Credit Card");
+        return new Order.Builder("Customer " + customer, "+1-555-" + customer)
+                .setDeliveryAddress(customer + " Baker Street")
+                .addItem(main, 1 + i % 3, List.of("Extra cheese"))
+                .addItem(drink, 1)
+                .restore(ids.nextId(), state, payment);
+    }
+
+    // ------------------------------------------------------------------------
+    // Command history: heap stays flat as commands pile up, the undo window is
+    // exactly the ring capacity, and archived commands can still be paged through
+    // ------------------------------------------------------------------------
+    static void boundedHistory() {
+        final int commands = 400_000;
+        final int capacity = 1024;
+        CommandInvoker invoker = new CommandInvoker(capacity, null, null);
+        MenuItem pizza = new MenuItem("Margherita", "Classic tomato and mozzarella", 12.99);
+        Runtime runtime = Runtime.getRuntime();
+
+        CONSOLE.printf("%nCommand history (ring of %,d)%n", capacity);
+        long began = System.nanoTime();
+        for (int i = 1; i <= commands; i++) {
+            Order order = new Order.Builder("Customer " + i, "+1-555-0100")
+                    .addItem(pizza, 1, List.of("Extra basil", "Well done"))
+                    .build();
+            invoker.executeCommand(new HistoryEntryCommand(order, i));
+            if (i % 100_000 == 0) {
+                System.gc();
+                CONSOLE.printf("  %,7d commands: heap %5.1f MB, archive %5.1f MB%n", i,
+                        (runtime.totalMemory() - runtime.freeMemory()) / 1e6,
+                        invoker.getArchive().getSizeBytes() / 1e6);
+            }
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        check(invoker.getHistorySize() == commands, "history size " + invoker.getHistorySize());
+
+        silenceConsole();
+        int undone = 0;
+        while (invoker.undo()) {
+            undone++;
+        }
+        restoreConsole();
+        check(undone == capacity, "undid " + undone + " commands");
+
+        List<String> page = invoker.getArchive().read(123_456, 3);
+        check(page.get(0).equals("Command #123457"), "archived entry reads back as " + page.get(0));
+        began = System.nanoTime();
+        silenceConsole();
+        invoker.showHistory(commands / 50 / 2, 50);
+        restoreConsole();
+        double pageMillis = (System.nanoTime() - began) / 1e6;
+        invoker.close();
+
+        CONSOLE.printf("  %,d commands recorded in %.2f s; undo window %d; paging the middle of the archive: %.2f ms%n",
+                commands, seconds, undone, pageMillis);
+    }
+
+    // Pins an order (items, customer, observers) the way real commands do
+    private static class HistoryEntryCommand implements Command {
+        private final Order order;
+        private final int number;
+
+        HistoryEntryCommand(Order order, int number) {
+            this.order = order;
+            this.number = number;
+        }
+
+        @Override
+        public boolean execute() { return true; }
+
+        @Override
+        public void undo() { }
+
+        @Override
+        public String getDescription() { return "Command #" + number; }
+    }
+
+    // ------------------------------------------------------------------------
+    // Batches: a batch is one history entry that undoes as a unit, notifications
+    // are coalesced, and the event log (fsync on every write) sees one write per
+    // batch; then processing throughput for batch sizes 1, 10 and 100
+    // ------------------------------------------------------------------------
+    static void batchExecution() throws Exception {
+        Path dir = Files.createTempDirectory("restaurant-batch");
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        restaurant.openEventLog(dir.resolve("orders.log"), 0);
+        MenuItem pizza = restaurant.findMenuItem("Pizza", 1);
+        StatusChangeCounter counter = new StatusChangeCounter();
+        restaurant.addNotificationObserver(counter);
+
+        List<String> driverPickup = placeOrders(restaurant, pizza, 30);
+        long historyBefore = restaurant.getCommandHistorySize();
+        long statusEventsBefore = counter.statusChanges;
+        check(restaurant.processOrders(driverPickup), "batch failed");
+        check(restaurant.processOrders(driverPickup), "second batch failed");
+        check(restaurant.getCommandHistorySize() == historyBefore + 2, "each batch should be one history entry");
+        check(restaurant.getOrdersByStatus(OrderState.PREPARING).size() == 30, "batch not applied");
+        check(counter.statusChanges - statusEventsBefore == 60, "expected one status event per order per batch");
+
+        // Same order twice in one batch: one coalesced notification, PREPARING -> IN_TRANSIT
+        String first = driverPickup.get(0);
+        statusEventsBefore = counter.statusChanges;
+        check(restaurant.processOrders(List.of(first, first)), "double-step batch failed");
+        check(counter.statusChanges - statusEventsBefore == 1, "status changes of one order were not coalesced");
+        check(restaurant.getOrder(first).getCurrentState() == OrderState.IN_TRANSIT, "double step not applied");
+
+        restaurant.undo();
+        restaurant.undo();
+        check(restaurant.getOrdersByStatus(OrderState.CONFIRMED).size() == 30, "batch undo did not revert all orders");
+        restaurant.redo();
+        check(restaurant.getOrdersByStatus(OrderState.PREPARING).size() == 30, "batch redo did not reapply");
+
+        // Throughput: every order steps PENDING -> CONFIRMED, commands grouped by batch size
+        final int ordersPerRun = 3_000;
+        OrderEventLog log = restaurant.getEventLog();
+        restoreConsole();
+        CONSOLE.printf("%nBatch execution (event log synced on every write)%n");
+        for (int batchSize : new int[] {0, 1, 10, 100}) {
+            silenceConsole();
+            List<String> orderIds = placeOrders(restaurant, pizza, ordersPerRun);
+            long syncsBefore = log.getSyncCount();
+            long statusBefore = counter.statusChanges;
+            long began = System.nanoTime();
+            if (batchSize == 0) {
+                for (String orderId : orderIds) {
+                    restaurant.processOrder(orderId);
+                }
+            } else {
+                for (int i = 0; i < orderIds.size(); i += batchSize) {
+                    restaurant.processOrders(orderIds.subList(i, Math.min(orderIds.size(), i + batchSize)));
+                }
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+            restoreConsole();
+            check(counter.statusChanges - statusBefore == ordersPerRun, "lost status notifications");
+            CONSOLE.printf("  %-16s %,8.0f commands/s  %,5d log syncs%n",
+                    batchSize == 0 ? "single commands" : "batches of " + batchSize,
+                    ordersPerRun / seconds, log.getSyncCount() - syncsBefore);
+        }
+
+        silenceConsole();
+        restaurant.shutdown();
+        SimpleRestaurant recovered = new SimpleRestaurant();
+        recovered.openEventLog(dir.resolve("orders.log"), 0);
+        recovered.shutdown();
+        restoreConsole();
+        for (Order order : restaurant.getAllOrders()) {
+            check(recovered.getOrder(order.getOrderId()).getCurrentState() == order.getCurrentState(),
+                    "batched transitions not recovered for " + order.getOrderId());
+        }
+        CONSOLE.printf("  log replay after batches matches all %,d orders%n", restaurant.getAllOrders().size());
+
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static class StatusChangeCounter implements OrderObserver {
+        long statusChanges;
+
+        @Override
+        public OrderEventInterest getInterest() {
+            return OrderEventInterest.of(OrderEventType.STATUS_CHANGED);
+        }
+
+        @Override
+        public void onOrderPlaced(Order order) { }
+
+        @Override
+        public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+            statusChanges++;
+        }
+
+        @Override
+        public void onOrderCancelled(Order order) { }
+
+        @Override
+        public void onPaymentProcessed(Order order, PaymentResult paymentResult) { }
+    }
+
+    private static List<String> placeOrders(SimpleRestaurant restaurant, MenuItem item, int count) {
+        List<String> orderIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = restaurant.createOrderBuilder("Customer " + i, "+1-555-" + (i % 100))
+                    .addItem(item, 1)
+                    .build();
+            check(restaurant.placeOrder(order), "placement failed");
+            orderIds.add(order.getOrderId());
+        }
+        return orderIds;
+    }
+
+    // ------------------------------------------------------------------------
+    // Analytics under concurrent events: exact totals, and a dashboard reader that
+    // never sees revenue out of step with the payments counted
+    // ------------------------------------------------------------------------
+    static void analyticsCounters() throws Exception {
+        final int threads = 8;
+        final int eventsPerThread = 1_000_000;
+        AnalyticsService analytics = new AnalyticsService();
+        Order order = new Order.Builder("Bench", "+1-555-0000")
+                .addItem(new MenuItem("Margherita", "Classic tomato and mozzarella", 12.99), 1)
+                .build();
+        PaymentResult paid = new PaymentResult(true, "CC-1", "ok", "Credit Card");
+        PaymentResult declined = new PaymentResult(false, null, "declined", "Credit Card");
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] reads = new long[1];
+        Thread dashboard = new Thread(() -> {
+            while (running.get()) {
+                AnalyticsService.Snapshot snapshot = analytics.getSnapshot();
+                check(snapshot.getRevenueCents() == snapshot.getSuccessfulPayments() * 1299,
+                        "revenue out of step with payments");
+                reads[0]++;
+            }
+        }, "dashboard");
+        dashboard.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            done.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < eventsPerThread; i++) {
+                    switch (i & 3) {
+                        case 0: analytics.onOrderPlaced(order); break;
+                        case 1: analytics.onPaymentProcessed(order, paid); break;
+                        case 2: analytics.onPaymentProcessed(order, (i & 4) == 0 ? paid : declined); break;
+                        default: analytics.onOrderCancelled(order); break;
+                    }
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : done) {
+            f.get();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        running.set(false);
+        dashboard.join();
+        pool.shutdown();
+
+        AnalyticsService.Snapshot totals = analytics.getSnapshot();
+        long perKind = (long) threads * eventsPerThread / 4;
+        check(totals.getTotalOrders() == perKind, "orders " + totals.getTotalOrders());
+        check(totals.getCancelledOrders() == perKind, "cancellations " + totals.getCancelledOrders());
+        check(totals.getSuccessfulPayments() == perKind + perKind / 2, "payments " + totals.getSuccessfulPayments());
+        check(totals.getFailedPayments() == perKind / 2, "failed payments " + totals.getFailedPayments());
+        check(totals.getRevenueCents() == totals.getSuccessfulPayments() * 1299, "revenue");
+
+        long events = (long) threads * eventsPerThread;
+        CONSOLE.printf("%nAnalytics counters: %,d events from %d threads in %.2f s (%.1f ns/event), "
+                        + "no lost counts; %,d consistent dashboard reads meanwhile%n",
+                events, threads, seconds, seconds * 1e9 / events, reads[0]);
+    }
+
+    // ------------------------------------------------------------------------
+    // Rolling windows: exact counts on a simulated clock, then event cost and
+    // dashboard query rate while several threads stream events
+    // ------------------------------------------------------------------------
+    static void slidingWindows() throws Exception {
+        Order order = new Order.Builder("Bench", "+1-555-0000")
+                .addItem(new MenuItem("Margherita", "Classic tomato and mozzarella", 12.99), 1)
+                .build();
+        PaymentResult paid = new PaymentResult(true, "CC-1", "ok", "Credit Card");
+        PaymentResult declined = new PaymentResult(false, null, "declined", "Credit Card");
+
+        // 90 minutes of service at 120 orders a minute; every 10th payment fails, every 20th order is cancelled
+        AtomicLong clock = new AtomicLong(1_000_000 * AnalyticsService.ONE_MINUTE - 250); // mid-bucket timestamps
+        AnalyticsService simulated = new AnalyticsService(clock::get);
+        for (int minute = 0; minute < 90; minute++) {
+            for (int i = 0; i < 120; i++) {
+                clock.addAndGet(500); // one order every half second
+                simulated.onOrderPlaced(order);
+                simulated.onPaymentProcessed(order, i % 10 == 0 ? declined : paid);
+                if (i % 20 == 0) {
+                    simulated.onOrderCancelled(order);
+                }
+            }
+        }
+        AnalyticsService.Snapshot minute = simulated.getWindow(AnalyticsService.ONE_MINUTE);
+        AnalyticsService.Snapshot quarter = simulated.getWindow(AnalyticsService.FIFTEEN_MINUTES);
+        AnalyticsService.Snapshot hour = simulated.getWindow(AnalyticsService.ONE_HOUR);
+        check(minute.getTotalOrders() == 120, "1-minute window holds " + minute.getTotalOrders());
+        check(quarter.getTotalOrders() == 15 * 120, "15-minute window holds " + quarter.getTotalOrders());
+        check(hour.getTotalOrders() == 60 * 120, "1-hour window holds " + hour.getTotalOrders());
+        check(Math.abs(hour.getOrdersPerMinute() - 120) < 0.1, "hourly rate " + hour.getOrdersPerMinute());
+        check(Math.abs(hour.getPaymentFailureRate() - 10) < 1e-9, "failure rate " + hour.getPaymentFailureRate());
+        check(Math.abs(hour.getCancellationRate() - 5) < 1e-9, "cancellation rate " + hour.getCancellationRate());
+        check(hour.getRevenueCents() == 60 * 108 * 1299L, "hourly revenue " + hour.getRevenueCents());
+        check(simulated.getSnapshot().getTotalOrders() == 90 * 120, "all-time total");
+
+        // Live clock: writers stream events while a dashboard polls all three windows
+        final int threads = 4;
+        final int eventsPerThread = 1_000_000;
+        AnalyticsService analytics = new AnalyticsService();
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] queries = new long[1];
+        Thread dashboard = new Thread(() -> {
+            while (running.get()) {
+                analytics.getWindow(AnalyticsService.ONE_MINUTE);
+                analytics.getWindow(AnalyticsService.FIFTEEN_MINUTES);
+                analytics.getWindow(AnalyticsService.ONE_HOUR);
+                queries[0]++;
+            }
+        }, "dashboard");
+        dashboard.start();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> done = new ArrayList<>();
+        long began = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            done.add(pool.submit(() -> {
+                for (int i = 0; i < eventsPerThread; i++) {
+                    if ((i & 1) == 0) {
+                        analytics.onOrderPlaced(order);
+                    } else {
+                        analytics.onPaymentProcessed(order, paid);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : done) {
+            f.get();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        running.set(false);
+        dashboard.join();
+        pool.shutdown();
+        long events = (long) threads * eventsPerThread;
+        check(analytics.getWindow(AnalyticsService.ONE_HOUR).getTotalOrders() == events / 2, "hour window lost events");
+
+        CONSOLE.printf("%nRolling windows: simulated 90 min service gives exact 1m/15m/1h counts and rates%n");
+        CONSOLE.printf("  %,d events from %d threads in %.2f s (%.1f ns/event incl. totals + 2 rings); "
+                        + "%,.0f dashboard polls/s (3 windows each) meanwhile%n",
+                events, threads, seconds, seconds * 1e9 / events, queries[0] / seconds);
+    }
+
+    // ------------------------------------------------------------------------
+    // Time-in-state histograms: percentile accuracy against exact values, a
+    // regression visible in the 15-minute window only, dwell times recorded for
+    // real (and batched) transitions, and the recording cost under contention
+    // ------------------------------------------------------------------------
+    static void stateLatencies() throws Exception {
+        // 1 us .. 10 s, uniform: every percentile must be within the histogram's 1/32 precision
+        LatencyHistogram histogram = new LatencyHistogram();
+        final int samples = 1_000_000;
+        for (int i = 1; i <= samples; i++) {
+            histogram.record(i * 10L);
+        }
+        double worstError = 0;
+        for (double percentile : new double[] {50, 90, 99, 99.9, 99.99}) {
+            long exact = (long) Math.ceil(percentile / 100 * samples) * 10;
+            long reported = histogram.getValueAtPercentile(percentile);
+            worstError = Math.max(worstError, Math.abs(reported - exact) / (double) exact);
+        }
+        check(worstError <= 1.0 / 32, "percentile error " + worstError);
+        check(histogram.getCount() == samples, "histogram count");
+        check(Math.abs(histogram.getMax() - samples * 10L) <= samples * 10L / 32, "max " + histogram.getMax());
+
+        // Simulated clock: kitchen takes ~8 min for 45 minutes, then ~20 min for the last 15
+        AtomicLong clock = new AtomicLong(1_000_000 * AnalyticsService.ONE_MINUTE);
+        StateLatencyTracker simulated = new StateLatencyTracker(clock::get);
+        for (int minute = 0; minute < 60; minute++) {
+            long typicalMicros = (minute < 45 ? 8 : 20) * 60_000_000L;
+            for (int i = 0; i < 100; i++) {
+                simulated.record(OrderState.PREPARING, typicalMicros + i * 1_000_000L, clock.get());
+            }
+            clock.addAndGet(AnalyticsService.ONE_MINUTE);
+        }
+        clock.addAndGet(-1); // still inside the last recorded minute
+        long recentP50 = simulated.getPercentile(OrderState.PREPARING, 50, AnalyticsService.FIFTEEN_MINUTES);
+        long hourP50 = simulated.getPercentile(OrderState.PREPARING, 50, AnalyticsService.ONE_HOUR);
+        check(simulated.getHistogram(OrderState.PREPARING, AnalyticsService.FIFTEEN_MINUTES).getCount() == 1_500,
+                "15-minute window count");
+        check(Math.abs(recentP50 - 20 * 60_000_000L) < 2 * 60_000_000L, "recent p50 " + recentP50);
+        check(Math.abs(hourP50 - 8 * 60_000_000L) < 2 * 60_000_000L, "hourly p50 " + hourP50);
+        check(simulated.getHistogram(OrderState.PREPARING).getCount() == 6_000, "all-time count");
+
+        // Real transitions: every state an order passes through gets one sample, batched or not
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        MenuItem pizza = restaurant.findMenuItem("Pizza", 1);
+        StateLatencyTracker tracker = restaurant.getStateLatencyTracker();
+        List<String> orderIds = placeOrders(restaurant, pizza, 200);
+        for (String orderId : orderIds.subList(0, 100)) {
+            for (int step = 0; step < 5; step++) {
+                restaurant.processOrder(orderId);
+            }
+        }
+        for (String orderId : orderIds.subList(100, 200)) {
+            check(restaurant.processOrders(List.of(orderId, orderId, orderId)), "batch failed"); // one coalesced event
+        }
+        restaurant.undo(); // backwards transitions are not dwell times
+        restoreConsole();
+        for (OrderState state : new OrderState[] {OrderState.PENDING, OrderState.CONFIRMED, OrderState.PREPARING}) {
+            check(tracker.getHistogram(state).getCount() == 200, state + " samples " + tracker.getHistogram(state).getCount());
+        }
+        check(tracker.getHistogram(OrderState.READY).getCount() == 100, "READY samples");
+        check(tracker.getHistogram(OrderState.IN_TRANSIT).getCount() == 100, "IN_TRANSIT samples");
+        check(tracker.getHistogram(OrderState.PENDING, AnalyticsService.ONE_MINUTE).getCount() == 200, "window samples");
+        restaurant.shutdown();
+
+        // Recording cost: 4 threads hammering the same state's histograms
+        final int threads = 4;
+        final int recordsPerThread = 2_000_000;
+        StateLatencyTracker contended = new StateLatencyTracker();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> done = new ArrayList<>();
+        long began = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            done.add(pool.submit(() -> {
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < recordsPerThread; i++) {
+                    contended.record(OrderState.PREPARING, (i * 7919L + seed) % 5_000_000, now);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : done) {
+            f.get();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+        long records = (long) threads * recordsPerThread;
+        check(contended.getHistogram(OrderState.PREPARING).getCount() == records, "lost samples");
+        long queryBegan = System.nanoTime();
+        contended.getPercentile(OrderState.PREPARING, 99.9, AnalyticsService.ONE_HOUR);
+        double queryMicros = (System.nanoTime() - queryBegan) / 1e3;
+
+        CONSOLE.printf("%nState latencies: percentiles within %.2f%% of exact over 1 us..10 s; "
+                        + "15-min window shows the kitchen slowdown (p50 %s vs %s over the hour)%n",
+                worstError * 100, StateLatencyTracker.formatMicros(recentP50), StateLatencyTracker.formatMicros(hourP50));
+        CONSOLE.printf("  %,d samples from %d threads in %.2f s (%.1f ns/sample, all-time + minute histogram); "
+                        + "1-hour p999 query %.0f us; %d buckets (%d KB) per histogram%n",
+                records, threads, seconds, seconds * 1e9 / records, queryMicros,
+                LatencyHistogram.getBucketCount(), LatencyHistogram.getBucketCount() * 8 / 1024);
+        tracker.printReport("demo orders", 0);
+    }
+
+    // ------------------------------------------------------------------------
+    // Money: banker's rounding, exact revenue where doubles drift, and the cost of
+    // a cached order total against summing the items on every call
+    // ------------------------------------------------------------------------
+    static void exactMoney() {
+        check(Money.ofDecimal(12.99) == 1299, "12.99");
+        check(Money.ofDecimal(0.125) == 12 && Money.ofDecimal(0.135) == 14, "half-even on input");
+        check(Money.ofDecimal("-0.005") == 0 && Money.ofDecimal("0.015") == 2, "half-even on strings");
+        check(Money.scale(5, 1, 2) == 2 && Money.scale(15, 1, 2) == 8 && Money.scale(-15, 1, 2) == -8, "half-even division");
+        check(Money.scale(1000, 1, 3) == 333 && Money.scale(2000, 1, 3) == 667, "division rounding");
+        check(Money.format(1299).equals("$12.99") && Money.format(5).equals("$0.05") && Money.format(-5).equals("-$0.05"),
+                "format");
+
+        // A million 10-cent orders: the double total drifts, the cents total does not
+        Order dime = new Order.Builder("Bench", "+1-555-0000")
+                .addItem(new MenuItem("Water", "Bottled water", 0.10), 1)
+                .build();
+        PaymentResult paid = new PaymentResult(true, "CC-1", "ok", "Credit Card");
+        AnalyticsService analytics = new AnalyticsService();
+        double doubleRevenue = 0;
+        final int orders = 1_000_000;
+        for (int i = 0; i < orders; i++) {
+            analytics.onPaymentProcessed(dime, paid);
+            doubleRevenue += dime.getTotalValue();
+        }
+        long revenue = analytics.getSnapshot().getRevenueCents();
+        check(revenue == 10L * orders, "revenue " + revenue);
+        check(analytics.getSnapshot().getAverageOrderCents() == 10, "average order value");
+
+        // Cached total vs walking the items, on a 12-line order
+        Order.Builder builder = new Order.Builder("Bench", "+1-555-0000");
+        for (int i = 0; i < 12; i++) {
+            builder.addItem(new MenuItem("Item " + i, "Bench item", 1.99 + i), 1 + i % 3);
+        }
+        Order large = builder.build();
+        final int reads = 20_000_000;
+        long sink = 0;
+        long began = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            sink += large.getTotalCents();
+        }
+        double cachedNanos = (System.nanoTime() - began) / (double) reads;
+        began = System.nanoTime();
+        for (int i = 0; i < reads / 10; i++) {
+            long total = 0;
+            for (OrderItem item : large.getOrderItems()) {
+                total += item.getTotalPriceCents();
+            }
+            sink += total;
+        }
+        double walkNanos = (System.nanoTime() - began) / (double) (reads / 10);
+        check(sink != 0, "sink");
+
+        CONSOLE.printf("%nMoney: %,d ten-cent payments total exactly %s (double sum gives %.10f); "
+                        + "banker's rounding on input and division%n",
+                orders, Money.format(revenue), doubleRevenue);
+        CONSOLE.printf("  order total: %.1f ns cached vs %.1f ns summing the 12 items from getOrderItems() per call%n", cachedNanos, walkNanos);
+    }
+
+    // ------------------------------------------------------------------------
+    // Allocation profile of the read paths: bytes allocated per call of each
+    // collection accessor, and per order for a full notification lifecycle
+    // ------------------------------------------------------------------------
+    static void readOnlyViews() {
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        MenuItem pizza = restaurant.findMenuItem("Pizza", 1);
+        placeOrders(restaurant, pizza, 1_000);
+        Order order = restaurant.createOrderBuilder("Bench", "+1-555-0000")
+                .addItem(pizza, 2, List.of("Extra cheese", "No basil"))
+                .addItem(restaurant.findMenuItem("Beverages", 1), 1)
+                .build();
+        OrderItem item = order.getOrderItems().get(0);
+        MenuCategory category = new MenuCategory("Pizza");
+        category.addMenuItem(pizza);
+        category.addMenuItem(restaurant.findMenuItem("Pizza", 2));
+
+        long[] sink = new long[1];
+        double orderItems = bytesPerCall(() -> sink[0] += order.getOrderItems().size());
+        double customizations = bytesPerCall(() -> sink[0] += item.getCustomizations().size());
+        double menuItems = bytesPerCall(() -> sink[0] += category.getMenuItems().size());
+        double findMenuItem = bytesPerCall(() -> sink[0] += restaurant.findMenuItem("Beverages", 2).hashCode());
+        double allOrders = bytesPerCall(() -> sink[0] += restaurant.getAllOrders().size());
+        double lifecycle = bytesPerCall(() -> {
+            Order placed = restaurant.createOrderBuilder("Bench", "+1-555-0001").addItem(pizza, 1).build();
+            restaurant.placeOrder(placed);
+            for (int step = 0; step < 5; step++) {
+                restaurant.processOrder(placed.getOrderId());
+            }
+        }, 2_000);
+        restaurant.shutdown();
+        restoreConsole();
+        check(sink[0] != 0, "sink");
+
+        CONSOLE.printf("%nRead-path allocations (bytes per call)%n");
+        CONSOLE.printf("  Order.getOrderItems        %,8.0f%n", orderItems);
+        CONSOLE.printf("  OrderItem.getCustomizations%,8.0f%n", customizations);
+        CONSOLE.printf("  MenuCategory.getMenuItems  %,8.0f%n", menuItems);
+        CONSOLE.printf("  findMenuItem               %,8.0f%n", findMenuItem);
+        CONSOLE.printf("  getAllOrders (1k+ orders)  %,8.0f%n", allOrders);
+        CONSOLE.printf("  place + 5 steps, all notifications %,8.0f per order%n", lifecycle);
+    }
+
+    private static double bytesPerCall(Runnable call) {
+        return bytesPerCall(call, 200_000);
+    }
+
+    private static double bytesPerCall(Runnable call, int calls) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < calls / 10; i++) {
+            call.run(); // warm up
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < calls; i++) {
+            call.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / (double) calls;
+    }
+
+    // ------------------------------------------------------------------------
+    // Menu catalog: 50k items over 40 brands; IDs survive a reordered rebuild,
+    // and lookups by ID / name stay flat where the old category scan grows
+    // ------------------------------------------------------------------------
+    static void menuCatalog() {
+        final int brands = 40;
+        final int categoriesPerBrand = 25;
+        final int itemsPerCategory = 50;
+        List<String[]> rows = new ArrayList<>(); // brand, category, name
+        for (int b = 0; b < brands; b++) {
+            for (int c = 0; c < categoriesPerBrand; c++) {
+                for (int i = 0; i < itemsPerCategory; i++) {
+                    rows.add(new String[] {"Brand " + b, "Category " + c, "Dish " + c + "-" + i});
+                }
+            }
+        }
+        long began = System.nanoTime();
+        MenuCatalog.Builder builder = MenuCatalog.builder();
+        for (String[] row : rows) {
+            builder.addItem(row[0], row[1], row[2], "Bench dish", 999);
+        }
+        MenuCatalog catalog = builder.build();
+        double buildMillis = (System.nanoTime() - began) / 1e6;
+        check(catalog.size() == rows.size(), "catalog size " + catalog.size());
+
+        // Reordered menu, one dish dropped and one added: every other dish keeps its ID
+        List<String[]> reordered = new ArrayList<>(rows.subList(1, rows.size()));
+        Collections.shuffle(reordered, new java.util.Random(42));
+        MenuCatalog.Builder rebuild = MenuCatalog.builder(catalog);
+        for (String[] row : reordered) {
+            rebuild.addItem(row[0], row[1], row[2], "Bench dish", 999);
+        }
+        rebuild.addItem("Brand 0", "Category 0", "Seasonal Special", "New dish", 1499);
+        MenuCatalog next = rebuild.build();
+        for (String[] row : reordered) {
+            MenuItem before = catalog.findItem(row[0], row[2]);
+            check(next.findItem(row[0], row[2]) == before, "item changed across rebuild: " + row[2]);
+        }
+        int removedId = catalog.findItem("Brand 0", "Dish 0-0").getId();
+        check(next.getItem(removedId) == null && next.findItem("Brand 0", "Dish 0-0") == null, "removed dish still listed");
+        check(next.findItem("brand 0", "SEASONAL special").getId() == catalog.idLimit(), "new dish should get a fresh ID");
+        check(next.getCategoryOf(next.findItem("Brand 7", "dish 3-4")).getName().equals("Category 3"), "category of item");
+
+        // Lookup cost: old-style linear scan over MenuCategory lists vs the catalog
+        List<MenuCategory> legacy = new ArrayList<>();
+        for (int b = 0; b < brands; b++) {
+            for (int c = 0; c < categoriesPerBrand; c++) {
+                MenuCategory category = new MenuCategory("Brand " + b + " Category " + c);
+                for (int i = 0; i < itemsPerCategory; i++) {
+                    category.addMenuItem(MenuItem.ofCents("Dish " + c + "-" + i, "Bench dish", 999));
+                }
+                legacy.add(category);
+            }
+        }
+        final int lookups = 200_000;
+        long sink = 0;
+        began = System.nanoTime();
+        for (int n = 0; n < lookups; n++) {
+            String wanted = "brand " + (n % brands) + " category " + (n % categoriesPerBrand);
+            for (MenuCategory category : legacy) {
+                if (category.getName().equalsIgnoreCase(wanted)) {
+                    sink += category.getMenuItem(1 + n % itemsPerCategory).getAmountCents();
+                    break;
+                }
+            }
+        }
+        double scanNanos = (System.nanoTime() - began) / (double) lookups;
+        String[] brandNames = new String[brands];
+        for (int b = 0; b < brands; b++) {
+            brandNames[b] = "Brand " + b;
+        }
+        String[] names = new String[1_024];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = (i % 2 == 0 ? "dish " : "DISH ") + (i % categoriesPerBrand) + "-" + (i % itemsPerCategory);
+        }
+        for (int n = 0; n < lookups * 10; n++) {
+            sink += catalog.findItem(brandNames[n % brands], names[n & 1023]).getAmountCents(); // warm up
+        }
+        began = System.nanoTime();
+        for (int n = 0; n < lookups * 10; n++) {
+            sink += catalog.findItem(brandNames[n % brands], names[n & 1023]).getAmountCents();
+        }
+        double nameNanos = (System.nanoTime() - began) / (lookups * 10.0);
+        began = System.nanoTime();
+        for (int n = 0; n < lookups * 10; n++) {
+            sink += catalog.getItem(n % catalog.idLimit()).getAmountCents();
+        }
+        double idNanos = (System.nanoTime() - began) / (lookups * 10.0);
+
+        // Building orders from IDs, as a checkout would
+        began = System.nanoTime();
+        final int orders = 100_000;
+        for (int n = 0; n < orders; n++) {
+            Order order = new Order.Builder("Bench", "+1-555-0000")
+                    .addItem(catalog.getItem(n % 50_000), 1)
+                    .addItem(catalog.getItem((n * 7) % 50_000), 2)
+                    .addItem(catalog.getItem((n * 13) % 50_000), 1)
+                    .build();
+            sink += order.getTotalCents();
+        }
+        double orderMicros = (System.nanoTime() - began) / 1e3 / orders;
+        check(sink != 0, "sink");
+
+        CONSOLE.printf("%nMenu catalog: %,d items, %d brands, %,d categories built in %.0f ms; "
+                        + "IDs stable across a reordered rebuild%n",
+                catalog.size(), brands, catalog.getCategories().size(), buildMillis);
+        CONSOLE.printf("  lookup: by ID %.1f ns, by case-folded name %.0f ns, old category scan %,.0f ns; "
+                        + "3-item order from IDs %.2f us%n", idNanos, nameNanos, scanNanos, orderMicros);
+    }
+
+    // ------------------------------------------------------------------------
+    // Menu search: demo-menu behaviour, then query latency percentiles and
+    // incremental re-indexing on a generated 50k-item, 40-brand catalog
+    // ------------------------------------------------------------------------
+    static void menuSearch() {
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        restaurant.shutdown();
+        restoreConsole();
+        check(restaurant.autocompleteMenu("marg", 5).get(0).getName().equals("Margherita"), "autocomplete marg");
+        check(restaurant.autocompleteMenu("pizza pep", 5).get(0).getName().equals("Pepperoni"), "autocomplete pizza pep");
+        check(restaurant.searchMenu("margarita", 5).get(0).getName().equals("Margherita"), "typo margarita");
+        check(restaurant.searchMenu("peperoni pizza", 5).get(0).getName().equals("Pepperoni"), "typo peperoni");
+        check(restaurant.searchMenu("chiken burgr", 5).get(0).getName().equals("Chicken Burger"), "typos chicken burger");
+
+        String[] styles = {"Smoky", "Spicy", "Crispy", "Classic", "Garlic", "Honey", "Lemon", "Tandoori", "Teriyaki",
+                "Truffle", "Roasted", "Grilled", "Sweet", "Sesame", "Pesto", "Chipotle", "Herb", "Pepper", "Coconut",
+                "Ginger", "Buffalo", "Cajun", "Korean", "Thai", "Greek"};
+        String[] mains = {"Chicken", "Beef", "Lamb", "Pork", "Tofu", "Paneer", "Salmon", "Shrimp", "Mushroom",
+                "Halloumi", "Falafel", "Duck", "Turkey", "Chickpea", "Aubergine"};
+        String[] dishes = {"Burger", "Wrap", "Salad", "Bowl", "Curry", "Pizza", "Tacos", "Noodles", "Risotto", "Skewers",
+                "Sandwich", "Ramen", "Burrito", "Flatbread", "Stew", "Quesadilla", "Pasta", "Biryani", "Dumplings"};
+        String[] sides = {"rice", "fries", "slaw", "greens", "pickles", "aioli", "salsa", "yogurt", "chutney", "kimchi"};
+        List<String[]> rows = new ArrayList<>(); // brand, category, name, description
+        java.util.Random random = new java.util.Random(7);
+        for (int b = 0; b < 40; b++) {
+            Set<String> names = new HashSet<>();
+            while (names.size() < 1_250) {
+                String dish = dishes[random.nextInt(dishes.length)];
+                String name = styles[random.nextInt(styles.length)] + " " + mains[random.nextInt(mains.length)] + " " + dish;
+                if (names.add(name)) {
+                    rows.add(new String[] {"Brand " + b, dish, name,
+                            "Served with " + sides[random.nextInt(sides.length)] + " and " + sides[random.nextInt(sides.length)]});
+                }
+            }
+        }
+        MenuCatalog.Builder builder = MenuCatalog.builder();
+        for (String[] row : rows) {
+            builder.addItem(row[0], row[1], row[2], row[3], 1099);
+        }
+        MenuCatalog catalog = builder.build();
+        long began = System.nanoTime();
+        MenuSearchIndex index = new MenuSearchIndex(catalog);
+        double buildMillis = (System.nanoTime() - began) / 1e6;
+
+        // Queries typed the way kiosk users type them: prefixes, full words, typos
+        final int queries = 20_000;
+        LatencyHistogram autocompleteLatency = new LatencyHistogram();
+        LatencyHistogram searchLatency = new LatencyHistogram();
+        long hits = 0;
+        for (int round = 0; round < 2; round++) { // first round warms up
+            autocompleteLatency.reset();
+            searchLatency.reset();
+            for (int q = 0; q < queries; q++) {
+                String[] words = rows.get(random.nextInt(rows.size()))[2].split(" ");
+                String prefix = words[0].substring(0, 1 + random.nextInt(words[0].length()));
+                String typed = q % 3 == 0 ? words[0] + " " + prefix(words[1], random) : prefix;
+                long start = System.nanoTime();
+                hits += index.autocomplete(typed, 10).size();
+                autocompleteLatency.record((System.nanoTime() - start) / 1_000);
+
+                String query = words[1] + " " + (q % 2 == 0 ? typo(words[2], random) : words[2]);
+                start = System.nanoTime();
+                List<MenuItem> found = index.search(query, 10);
+                searchLatency.record((System.nanoTime() - start) / 1_000);
+                check(!found.isEmpty(), "no results for " + query);
+                hits += found.size();
+            }
+        }
+        check(hits > 0, "no hits");
+        MenuItem sample = catalog.findItem("Brand 3", rows.get(3 * 1_250 + 17)[2]);
+        check(index.search(typo(sample.getName(), new java.util.Random(1)), 50).contains(sample), "typo of full name");
+
+        // Incremental: rename 100 dishes in a rebuilt catalog
+        MenuCatalog.Builder rebuild = MenuCatalog.builder(catalog);
+        for (int i = 0; i < rows.size(); i++) {
+            String[] row = rows.get(i);
+            String name = i % 500 == 0 ? "Chef Special " + i : row[2];
+            rebuild.addItem(row[0], row[1], name, row[3], 1099);
+        }
+        MenuCatalog next = rebuild.build();
+        began = System.nanoTime();
+        int changed = index.update(next);
+        double updateMillis = (System.nanoTime() - began) / 1e6;
+        check(changed == 200, "re-indexed " + changed + " items"); // 100 removed + 100 added
+        check(index.search("chef special 500", 1).get(0).getName().equals("Chef Special 500"), "renamed item not found");
+        check(!index.autocomplete(rows.get(500)[2], 5).contains(catalog.findItem(rows.get(500)[0], rows.get(500)[2])),
+                "removed item still returned");
+
+        CONSOLE.printf("%nMenu search: %,d items, %,d terms indexed in %.0f ms; update of %d changed items %.1f ms%n",
+                catalog.size(), index.getTermCount(), buildMillis, changed, updateMillis);
+        CONSOLE.printf("  autocomplete  p50 %s  p99 %s  p999 %s%n",
+                StateLatencyTracker.formatMicros(autocompleteLatency.getValueAtPercentile(50)),
+                StateLatencyTracker.formatMicros(autocompleteLatency.getValueAtPercentile(99)),
+                StateLatencyTracker.formatMicros(autocompleteLatency.getValueAtPercentile(99.9)));
+        CONSOLE.printf("  fuzzy search  p50 %s  p99 %s  p999 %s  (half the queries with a typo)%n",
+                StateLatencyTracker.formatMicros(searchLatency.getValueAtPercentile(50)),
+                StateLatencyTracker.formatMicros(searchLatency.getValueAtPercentile(99)),
+                StateLatencyTracker.formatMicros(searchLatency.getValueAtPercentile(99.9)));
+    }
+
+    // ------------------------------------------------------------------------
+    // Hot menu reload: prices change from a file, IDs stay put, built orders keep
+    // their prices, bad files are rejected, and readers racing hundreds of
+    // reloads never see a menu that mixes two versions
+    // ------------------------------------------------------------------------
+    static void menuReload() throws Exception {
+        Path dir = Files.createTempDirectory("menu-bench");
+        Path file = dir.resolve("menu.txt");
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        try {
+            MenuItem margherita = restaurant.findMenuItem("Margherita");
+            Order before = restaurant.createOrderBuilder("Bench", "+1-555-0000").addItem("Margherita", 2).build();
+            check(before.getTotalCents() == 2 * 1299, "order total before reload");
+
+            Files.writeString(file, MenuFile.DEFAULT_MENU.replace("| 12.99", "| 13.49")
+                    + "\nDesserts | Tiramisu | Coffee and mascarpone | 6.50\n");
+            int changed = restaurant.reloadMenu(file);
+            check(changed == 2, "changed items " + changed);
+            MenuItem repriced = restaurant.findMenuItem("Margherita");
+            check(repriced.getAmountCents() == 1349 && repriced.getId() == margherita.getId(), "repriced Margherita");
+            check(restaurant.findMenuItem("Pepperoni") == restaurant.getMenuCatalog().getItem(1), "unchanged item kept");
+            check(before.getTotalCents() == 2 * 1299, "built order changed price");
+            check(restaurant.createOrderBuilder("Bench", "+1-555-0000").addItem(repriced.getId(), 2).build()
+                    .getTotalCents() == 2 * 1349, "order total after reload");
+            check(restaurant.searchMenu("tiramisu", 1).get(0).getName().equals("Tiramisu"), "new item not searchable");
+
+            // A broken file leaves the current menu in place
+            MenuCatalog current = restaurant.getMenuCatalog();
+            Files.writeString(file, MenuFile.DEFAULT_MENU + "\nPizza | Broken | No price\n");
+            boolean rejected = false;
+            try {
+                restaurant.reloadMenu(file);
+            } catch (IllegalStateException e) {
+                rejected = e.getMessage().startsWith("menu.txt:");
+            }
+            check(rejected && restaurant.getMenuCatalog() == current, "bad menu file accepted");
+
+            // The watcher picks up an edited file
+            Files.writeString(file, MenuFile.DEFAULT_MENU);
+            MenuWatcher watcher = restaurant.watchMenu(file, 20);
+            check(restaurant.findMenuItem("Tiramisu") == null, "watchMenu did not load the file");
+            Files.writeString(file, MenuFile.DEFAULT_MENU.replace("| 1.99", "| 2.25") + "\n");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (watcher.getReloads() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            check(restaurant.findMenuItem("Water").getAmountCents() == 225, "watcher missed the change");
+
+            // Rewritten in place: a prefix that parses on its own must not be published
+            SimpleRestaurant edited = new SimpleRestaurant();
+            MenuWatcher manual = new MenuWatcher(edited, file);
+            manual.start(60_000); // polled by hand below
+            String full = MenuFile.DEFAULT_MENU.replace("| 1.99", "| 2.50");
+            String prefix = full.substring(0, full.lastIndexOf('\n', full.indexOf("Water")) + 1);
+            Files.writeString(file, prefix);
+            check(!manual.poll(), "half-written menu loaded on first sight");
+            Files.writeString(file, full);
+            check(!manual.poll(), "menu loaded while still changing");
+            check(manual.poll() && edited.findMenuItem("Water").getAmountCents() == 250, "settled menu not loaded");
+            manual.close();
+            edited.shutdown();
+        } finally {
+            restaurant.shutdown();
+            restoreConsole();
+        }
+
+        // Two menus with every price equal; a reader's snapshot and every order built
+        // from one builder must be entirely one or the other
+        StringBuilder cheap = new StringBuilder();
+        StringBuilder dear = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            cheap.append("Bench | Dish ").append(i).append(" | Bench dish | 1.00\n");
+            dear.append("Bench | Dish ").append(i).append(" | Bench dish | 2.00\n");
+        }
+        Path cheapFile = dir.resolve("cheap.txt");
+        Path dearFile = dir.resolve("dear.txt");
+        Files.writeString(cheapFile, cheap);
+        Files.writeString(dearFile, dear);
+        silenceConsole();
+        SimpleRestaurant swapped = new SimpleRestaurant();
+        swapped.reloadMenu(cheapFile);
+        final int readers = 3;
+        final int reloads = 200;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong torn = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            futures.add(pool.submit(() -> {
+                long local = 0;
+                while (!done.get()) {
+                    MenuCatalog.Category bench = swapped.getMenuCatalog().getCategory("Bench");
+                    long first = bench.getItem(1).getAmountCents();
+                    for (int i = 2; i <= bench.size(); i++) {
+                        if (bench.getItem(i).getAmountCents() != first) {
+                            torn.incrementAndGet();
+                        }
+                    }
+                    Order.Builder builder = swapped.createOrderBuilder("Bench", "+1-555-0000");
+                    for (int i = 0; i < 10; i++) {
+                        builder.addItem("Dish " + (local * 10 + i) % 200, 1);
+                    }
+                    long total = builder.build().getTotalCents();
+                    if (total != 1000 && total != 2000) {
+                        torn.incrementAndGet();
+                    }
+                    local++;
+                }
+                reads.addAndGet(local);
+            }));
+        }
+        long began = System.nanoTime();
+        double reloadMicros;
+        try {
+            for (int n = 0; n < reloads; n++) {
+                swapped.reloadMenu(n % 2 == 0 ? dearFile : cheapFile);
+            }
+            reloadMicros = (System.nanoTime() - began) / 1e3 / reloads;
+        } finally {
+            done.set(true);
+            pool.shutdown();
+            swapped.shutdown();
+            restoreConsole();
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        check(torn.get() == 0, torn.get() + " reads saw a mixed menu");
+        check(reads.get() > 0, "readers made no progress");
+        for (Path path : List.of(file, cheapFile, dearFile, dir)) {
+            Files.deleteIfExists(path);
+        }
+
+        CONSOLE.printf("%nMenu reload: prices and new items picked up with stable IDs; built orders keep their "
+                + "prices; bad files rejected; watcher reloads once the file settles, never half-written%n");
+        CONSOLE.printf("  %,d reloads of a 200-item file at %.0f us each while %d readers took %,d consistent "
+                + "snapshots and orders, 0 mixed%n", reloads, reloadMicros, readers, reads.get());
+    }
+
+    // ------------------------------------------------------------------------
+    // Kitchen: thousands of orders enter PREPARING at once and are cooked by four
+    // stations with simulated prep times; every order must reach READY exactly
+    // once, and an order advanced by hand must not be advanced again
+    // ------------------------------------------------------------------------
+    static void kitchenScheduling() throws Exception {
+        final int orders = 4_000;
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        KitchenScheduler kitchen = restaurant.startKitchen(KitchenScheduler.builder()
+                .station("Pizza oven", 3, Duration.ofMillis(2), "Pizza")
+                .station("Grill", 2, Duration.ofMillis(2), "Burgers")
+                .station("Drinks", 1, Duration.ofMillis(1), "Beverages")
+                .station("Prep", 1, Duration.ofMillis(1)));
+        double seconds;
+        long tasks = 0;
+        List<Order> placed = new ArrayList<>(orders);
+        try {
+            MenuCatalog menu = restaurant.getMenuCatalog();
+            java.util.Random random = new java.util.Random(11);
+            for (int n = 0; n < orders; n++) {
+                Order.Builder builder = restaurant.createOrderBuilder("Customer " + n, "+1-555-" + n);
+                int items = 1 + random.nextInt(3);
+                for (int i = 0; i < items; i++) {
+                    builder.addItem(random.nextInt(menu.idLimit()), 1 + random.nextInt(2));
+                }
+                Order order = builder.build();
+                check(restaurant.placeOrder(order), "placement failed");
+                restaurant.processOrder(order.getOrderId()); // PENDING -> CONFIRMED
+                placed.add(order);
+                tasks += order.itemCount();
+            }
+            long began = System.nanoTime();
+            for (int from = 0; from < orders; from += 100) {
+                List<String> ids = new ArrayList<>();
+                for (Order order : placed.subList(from, Math.min(orders, from + 100))) {
+                    ids.add(order.getOrderId());
+                }
+                check(restaurant.processOrders(ids), "CONFIRMED -> PREPARING batch failed"); // all at once
+            }
+            int peak = kitchen.getOrdersInKitchen();
+            long operatorHistory = restaurant.getCommandHistorySize();
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+            while (kitchen.getOrdersReady() < orders && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            seconds = (System.nanoTime() - began) / 1e9;
+            restoreConsole();
+            check(peak > 1_000, "only " + peak + " orders in the kitchen at once");
+            check(restaurant.getCommandHistorySize() == operatorHistory, "kitchen transitions entered the undo history");
+        } finally {
+            restoreConsole();
+        }
+        long completed = 0;
+        for (KitchenScheduler.Station station : kitchen.getStations()) {
+            completed += station.getCompleted();
+        }
+        check(kitchen.getOrdersReady() == orders, "ready " + kitchen.getOrdersReady() + " of " + orders);
+        check(completed == tasks, "completed " + completed + " of " + tasks + " tasks");
+        for (Order order : placed) {
+            check(order.getCurrentState() == OrderState.READY, order.getOrderId() + " is " + order.getCurrentState());
+        }
+        restaurant.showKitchen();
+
+        // Processed by hand while its tasks are still cooking: the kitchen must not move it again
+        silenceConsole();
+        SimpleRestaurant manual = new SimpleRestaurant();
+        KitchenScheduler slow = manual.startKitchen(KitchenScheduler.builder()
+                .station("Pizza oven", 1, Duration.ofMillis(50)));
+        Order order = manual.createOrderBuilder("Bench", "+1-555-0000").addItem("Margherita", 1).build();
+        manual.placeOrder(order);
+        manual.processOrder(order.getOrderId()); // -> CONFIRMED
+        manual.processOrder(order.getOrderId()); // -> PREPARING, queued
+        manual.processOrder(order.getOrderId()); // -> READY by hand
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (slow.getOrdersDropped() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        manual.shutdown();
+        restaurant.shutdown();
+        restoreConsole();
+        check(order.getCurrentState() == OrderState.READY && slow.getOrdersDropped() == 1,
+                "manually processed order moved to " + order.getCurrentState());
+
+        CONSOLE.printf("%nKitchen: %,d orders (%,d station tasks) from PREPARING to READY in %.2f s; "
+                + "each advanced exactly once, none in the undo history; manual processing wins%n", orders, tasks, seconds);
+    }
+
+    // ------------------------------------------------------------------------
+    // Delivery dispatch simulator: a day of orders to synthetic addresses on a
+    // virtual clock, dispatched one per trip and in geohash batches; compares
+    // orders delivered per driver-hour and ready-to-door time
+    // ------------------------------------------------------------------------
+    static void deliveryDispatch() {
+        check(new GeoPoint(57.64911, 10.40744).geohash(11).equals("u4pruydqqvj"), "geohash");
+        Geocoder geocoder = new LocalGeocoder(new GeoPoint(40.7128, -74.0060), 5);
+        check(geocoder.locate("12 Oak Street").distanceKm(geocoder.locate("14 oak street")) < 0.05, "same street apart");
+
+        CONSOLE.printf("%nDelivery dispatch: 8 simulated hours, 20 drivers, 25 km/h, 3 min per stop%n");
+        CONSOLE.printf("  %-10s %-22s %7s %9s %13s %10s %10s%n", "Demand", "Policy", "Trips", "Avg batch",
+                "Orders/drv-h", "door p50", "door p99");
+        for (int ordersPerHour : new int[] {40, 120}) {
+            DeliveryDispatcher single = simulateDispatch(ordersPerHour, "one order per trip", 1, Duration.ZERO);
+            DeliveryDispatcher batched = simulateDispatch(ordersPerHour, "batches of 3, 3 min", 3, Duration.ofMinutes(3));
+            simulateDispatch(ordersPerHour, "batches of 5, 5 min", 5, Duration.ofMinutes(5));
+            check(batched.getOrdersPerDriverHour() > single.getOrdersPerDriverHour() * (ordersPerHour > 100 ? 1.5 : 1.05),
+                    "batching did not raise orders per driver-hour at " + ordersPerHour + "/h");
+        }
+    }
+
+    private static DeliveryDispatcher simulateDispatch(int ordersPerHour, String policy, int maxBatchSize,
+                                                       Duration window) {
+        final long hour = 3_600_000;
+        final long tick = 30_000;
+        final double ordersPerMinute = ordersPerHour / 60.0;
+        String[] names = {"Oak", "Maple", "Cedar", "Pine", "Elm", "Birch", "Willow", "Ash", "Spruce", "Walnut",
+                "Cherry", "Chestnut", "Poplar", "Hazel", "Juniper", "Linden", "Magnolia", "Alder", "Laurel", "Holly"};
+        String[] kinds = {"Street", "Avenue", "Road", "Lane"};
+        AtomicLong clock = new AtomicLong();
+        java.util.Random random = new java.util.Random(3);
+
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        DeliveryDispatcher dispatcher = restaurant.startDispatch(DeliveryDispatcher.builder()
+                .clock(clock::get)
+                .drivers(20)
+                .maxBatchSize(maxBatchSize)
+                .window(window), 0);
+        MenuItem pizza = restaurant.findMenuItem("Margherita");
+        List<Order> placed = new ArrayList<>();
+        double nextArrival = 0;
+        try {
+            for (long now = 0; now < 8 * hour || dispatcher.getOrdersDelivered() < placed.size(); now += tick) {
+                check(now < 48 * hour, "deliveries never finished");
+                clock.set(now);
+                while (now < 8 * hour && nextArrival <= now) {
+                    String address = (1 + random.nextInt(150)) + " " + names[random.nextInt(names.length)] + " "
+                            + kinds[random.nextInt(kinds.length)];
+                    Order order = restaurant.createOrderBuilder("Customer", "+1-555-0000")
+                            .setDeliveryAddress(address)
+                            .addItem(pizza, 1)
+                            .build();
+                    restaurant.placeOrder(order);
+                    for (int step = 0; step < 3; step++) {
+                        restaurant.processOrder(order.getOrderId()); // -> READY
+                    }
+                    placed.add(order);
+                    nextArrival += -Math.log(1 - random.nextDouble()) / ordersPerMinute * 60_000; // Poisson arrivals
+                }
+                dispatcher.tick();
+            }
+        } finally {
+            restaurant.shutdown();
+            restoreConsole();
+        }
+        for (Order order : placed) {
+            check(order.getCurrentState() == OrderState.DELIVERED, order.getOrderId() + " is " + order.getCurrentState());
+        }
+        check(dispatcher.getOrdersDispatched() == placed.size(), "dispatched " + dispatcher.getOrdersDispatched());
+        check(restaurant.getCommandHistorySize() == placed.size() * 4L, "driver transitions entered the undo history");
+        LatencyHistogram door = dispatcher.getReadyToDelivered();
+        CONSOLE.printf("  %-10s %-22s %7d %9.2f %13.2f %10s %10s%n", ordersPerHour + "/h", policy,
+                dispatcher.getTripsStarted(),
+                dispatcher.getAverageBatchSize(), dispatcher.getOrdersPerDriverHour(),
+                StateLatencyTracker.formatMicros(door.getValueAtPercentile(50)),
+                StateLatencyTracker.formatMicros(door.getValueAtPercentile(99)));
+        return dispatcher;
+    }
+
+    // ------------------------------------------------------------------------
+    // Admission control: per-channel rate limits with retry hints, then 64 clients
+    // against a gateway that handles 8 payments at a time, with and without the
+    // adaptive concurrency limit
+    // ------------------------------------------------------------------------
+    static void admissionControl() throws Exception {
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        AdmissionController gate = restaurant.enableAdmissionControl(AdmissionController.builder()
+                .channel("web", 100, 20)
+                .channel("phone", 5, 2)
+                .concurrencyLimit(500, 1, 1_000));
+        MenuItem pizza = restaurant.findMenuItem("Margherita");
+        int webAdmitted = 0;
+        OrderRejectedException lastRejection = null;
+        for (int i = 0; i < 100; i++) {
+            try {
+                restaurant.placeOrder(restaurant.createOrderBuilder("Web", "+1-555-0001")
+                        .setChannel("web").addItem(pizza, 1).build());
+                webAdmitted++;
+            } catch (OrderRejectedException e) {
+                lastRejection = e;
+            }
+        }
+        int phoneAdmitted = 0;
+        for (int i = 0; i < 2; i++) {
+            restaurant.placeOrder(restaurant.createOrderBuilder("Phone", "+1-555-0002")
+                    .setChannel("phone").addItem(pizza, 1).build());
+            phoneAdmitted++;
+        }
+        check(lastRejection != null && lastRejection.getReason() == OrderRejectedException.Reason.RATE_LIMITED,
+                "web burst was not rate limited");
+        long hint = lastRejection.getRetryAfterMillis();
+        Thread.sleep(hint);
+        check(restaurant.placeOrder(restaurant.createOrderBuilder("Web", "+1-555-0001")
+                .setChannel("web").addItem(pizza, 1).build()), "retry after the hint was rejected");
+        CompletableFuture<Boolean> async = restaurant.placeOrderAsync(restaurant.createOrderBuilder("Phone", "+1-555-0002")
+                .setChannel("phone").addItem(pizza, 1).build());
+        check(async.isCompletedExceptionally(), "async placement over the phone rate was not rejected");
+        restaurant.shutdown();
+        restoreConsole();
+        check(webAdmitted >= 20 && webAdmitted < 40, "web admitted " + webAdmitted + " of a burst of 100");
+        check(gate.getRejected("web") == 100 - webAdmitted && gate.getRejected("phone") == 1, "reject counts");
+        CONSOLE.printf("%nAdmission control: burst of 100 web orders (100/s, burst 20): %d admitted, %d rejected "
+                + "with a %d ms retry hint; phone channel unaffected (%d admitted)%n",
+                webAdmitted, 100 - webAdmitted, hint, phoneAdmitted);
+
+        idleThenBurst();
+        CONSOLE.printf("  64 clients for 3 s against a gateway that takes 20 ms and 8 payments at a time%n");
+        CONSOLE.printf("  %-51s %10s %9s %9s %9s %10s%n", "", "placed/s", "p50", "p99", "rejected", "reject p99");
+        long[] unlimited = overloadRun(null);
+        long[] adaptive = overloadRun(AdmissionController.builder()
+                .paymentLatencyTarget(Duration.ofMillis(60))
+                .concurrencyLimit(64, 1, 1_000));
+        check(adaptive[1] < unlimited[1] * 0.6, "adaptive limit did not cut placement latency");
+    }
+
+    // A long quiet spell (one order at a time) must not raise the limit, so a sudden
+    // burst against a slow gateway still meets the limit it had before
+    private static void idleThenBurst() throws Exception {
+        final int idleOrders = 5_000;
+        final int burst = 64;
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        AdmissionController gate = restaurant.enableAdmissionControl(AdmissionController.builder()
+                .concurrencyLimit(16, 1, 1_000));
+        MenuItem pizza = restaurant.findMenuItem("Margherita");
+        for (int i = 0; i < idleOrders; i++) {
+            restaurant.placeOrder(restaurant.createOrderBuilder("Quiet", "+1-555-0004").addItem(pizza, 1).build());
+        }
+        int idleLimit = gate.getLimit();
+
+        PaymentStrategy gateway = new CapacityGatewayPayment(burst, 200);
+        ExecutorService pool = Executors.newFixedThreadPool(burst);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int c = 0; c < burst; c++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    return restaurant.placeOrder(restaurant.createOrderBuilder("Burst", "+1-555-0005")
+                            .setPaymentStrategy(gateway).addItem(pizza, 1).build());
+                } catch (OrderRejectedException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int admitted = 0;
+        for (Future<Boolean> result : results) {
+            admitted += result.get() ? 1 : 0;
+        }
+        pool.shutdown();
+        restaurant.shutdown();
+        restoreConsole();
+        check(idleLimit == 16, "limit drifted to " + idleLimit + " while idle");
+        check(admitted < burst / 2, admitted + " of a burst of " + burst + " admitted");
+        CONSOLE.printf("  after %,d one-at-a-time orders the limit is still %d; a burst of %d got %d in%n",
+                idleOrders, idleLimit, burst, admitted);
+    }
+
+    // Returns {placed, p50 micros}; clients retry after the hint when rejected
+    private static long[] overloadRun(AdmissionController.Builder config) throws Exception {
+        final int clients = 64;
+        final long runNanos = TimeUnit.SECONDS.toNanos(3);
+        silenceConsole();
+        SimpleRestaurant restaurant = new SimpleRestaurant();
+        AdmissionController gate = config != null ? restaurant.enableAdmissionControl(config) : null;
+        MenuItem pizza = restaurant.findMenuItem("Margherita");
+        PaymentStrategy gateway = new CapacityGatewayPayment(8, 20);
+        LatencyHistogram placed = new LatencyHistogram();
+        LatencyHistogram rejected = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long began = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            futures.add(pool.submit(() -> {
+                while (System.nanoTime() - began < runNanos) {
+                    Order order = restaurant.createOrderBuilder("Client", "+1-555-0003")
+                            .setPaymentStrategy(gateway).addItem(pizza, 1).build();
+                    long start = System.nanoTime();
+                    try {
+                        restaurant.placeOrder(order);
+                        placed.record((System.nanoTime() - start) / 1_000);
+                    } catch (OrderRejectedException e) {
+                        rejected.record((System.nanoTime() - start) / 1_000);
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(e.getRetryAfterMillis()));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+        restaurant.shutdown();
+        restoreConsole();
+        CONSOLE.printf("  %-51s %10.0f %9s %9s %9d %10s%n",
+                gate == null ? "no admission control" : "AIMD limit, 60 ms target (limit now " + gate.getLimit() + ")",
+                placed.getCount() / seconds,
+                StateLatencyTracker.formatMicros(placed.getValueAtPercentile(50)),
+                StateLatencyTracker.formatMicros(placed.getValueAtPercentile(99)),
+                rejected.getCount(),
+                StateLatencyTracker.formatMicros(rejected.getValueAtPercentile(99)));
+        return new long[] {placed.getCount(), placed.getValueAtPercentile(50)};
+    }
+
+    // Gateway that authorizes at most `capacity` payments at once; the rest queue
+    static class CapacityGatewayPayment implements PaymentStrategy {
+        private final java.util.concurrent.Semaphore slots;
+        private final long latencyMillis;
+
+        CapacityGatewayPayment(int capacity, long latencyMillis) {
+            this.slots = new java.util.concurrent.Semaphore(capacity, true);
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public PaymentResult processPayment(long amountCents, String orderId) {
+            slots.acquireUninterruptibly();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                slots.release();
+            }
+            return new PaymentResult(true, "CAP-" + orderId, "Simulated payment", getPaymentType());
+        }
+
+        @Override
+        public String getPaymentType() {
+            return "Capacity-limited Gateway";
+        }
+    }
+
+    private static String prefix(String word, java.util.Random random) {
+        return word.substring(0, 1 + random.nextInt(word.length()));
+    }
+
+    // One random edit: swap, drop or replace a character
+    private static String typo(String word, java.util.Random random) {
+        if (word.length() < 5) {
+            return word;
+        }
+        int i = 1 + random.nextInt(word.length() - 2);
+        switch (random.nextInt(3)) {
+            case 0:
+                return word.substring(0, i) + word.charAt(i + 1) + word.charAt(i) + word.substring(i + 2);
+            case 1:
+                return word.substring(0, i) + word.substring(i + 1);
+            default:
+                return word.substring(0, i) + 'x' + word.substring(i + 1);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package projects.restaurant;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// ============================================================================
+// RESTAURANT DASHBOARD
+// ============================================================================
+
+// Restaurant dashboard for internal notifications
+class RestaurantDashboard implements OrderObserver {
+    private final String serviceName = "Restaurant Dashboard";
+
+    @Override
+    public void onOrderPlaced(Order order) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+        System.out.printf("🏪 [%s] %s - NEW ORDER ALERT%n", serviceName, timestamp);
+        System.out.printf("   Order: %s | Customer: %s%n", order.getOrderId(), order.getCustomerInfo().getCustomerName());
+        System.out.printf("   Items: %d | Total: %s%n", order.itemCount(), Money.format(order.getTotalCents()));
+        System.out.printf("   Payment: %s%n", order.isPaid() ? "✅ PAID" : "❌ PENDING");
+    }
+
+    @Override
+    public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+        System.out.printf("🏪 [%s] %s - Order %s: %s → %s%n",
+                serviceName, timestamp, order.getOrderId(), previousStatus, newStatus);
+
+        // Alert for orders ready for delivery
+        if (newStatus == OrderState.READY) {
+            System.out.printf("   🚨 DELIVERY ALERT: Order %s ready for pickup by driver%n", order.getOrderId());
+        }
+    }
+
+    @Override
+    public void onOrderCancelled(Order order) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+        System.out.printf("🏪 [%s] %s - ORDER CANCELLED: %s%n", serviceName, timestamp, order.getOrderId());
+        System.out.printf("   ⚠️ ACTION REQUIRED: Investigate cancellation reason%n");
+    }
+
+    @Override
+    public void onPaymentProcessed(Order order, PaymentResult paymentResult) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+        if (paymentResult.isSuccess()) {
+            System.out.printf("🏪 [%s] %s - PAYMENT SUCCESS: Order %s (%s via %s)%n",
+                    serviceName, timestamp, order.getOrderId(),
+                    Money.format(order.getTotalCents()), paymentResult.getPaymentMethod());
+        } else {
+            System.out.printf("🏪 [%s] %s - PAYMENT FAILED: Order %s%n",
+                    serviceName, timestamp, order.getOrderId());
+            System.out.printf("   ⚠️ ACTION REQUIRED: Follow up with customer%n");
+        }
+    }
+}
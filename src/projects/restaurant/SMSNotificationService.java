@@ -0,0 +1,77 @@
+package projects.restaurant;
+
+// ============================================================================
+// SMS NOTIFICATIONS
+// ============================================================================
+
+// SMS notification service
+class SMSNotificationService implements OrderObserver {
+    private final String serviceName = "SMS Service";
+
+    @Override
+    public void onOrderPlaced(Order order) {
+        String message = String.format("Order %s placed successfully! Total: %s. Track at: restaurant.com/track/%s",
+                order.getOrderId(), Money.format(order.getTotalCents()), order.getOrderId());
+        sendSMS(order.getCustomerInfo().getNumber(), message);
+    }
+
+    @Override
+    public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        // Send SMS for important status updates only
+        if (shouldSendSMS(newStatus)) {
+            String message = createSMSMessage(order, newStatus);
+            sendSMS(order.getCustomerInfo().getNumber(), message);
+        }
+    }
+
+    @Override
+    public void onOrderCancelled(Order order) {
+        String message = String.format("Order %s cancelled. Refund processed if applicable. Questions? Call (555) FOOD-123",
+                order.getOrderId());
+        sendSMS(order.getCustomerInfo().getNumber(), message);
+    }
+
+    @Override
+    public void onPaymentProcessed(Order order, PaymentResult paymentResult) {
+        if (paymentResult.isSuccess()) {
+            String message = String.format("Payment confirmed! %s via %s. Order %s is being prepared.",
+                    Money.format(order.getTotalCents()), paymentResult.getPaymentMethod(), order.getOrderId());
+            sendSMS(order.getCustomerInfo().getNumber(), message);
+        } else {
+            String message = String.format("Payment failed for order %s. Please try a different payment method.",
+                    order.getOrderId());
+            sendSMS(order.getCustomerInfo().getNumber(), message);
+        }
+    }
+
+    // Status changes are only routed here for the statuses we actually text about
+    @Override
+    public OrderEventInterest getInterest() {
+        return OrderEventInterest.all().onlyStatuses(OrderState.READY, OrderState.IN_TRANSIT, OrderState.DELIVERED);
+    }
+
+    private boolean shouldSendSMS(OrderState status) {
+        // Only send SMS for critical updates to avoid spam
+        return status == OrderState.READY || status == OrderState.IN_TRANSIT || status == OrderState.DELIVERED;
+    }
+
+    private String createSMSMessage(Order order, OrderState status) {
+        switch (status) {
+            case READY:
+                return String.format("🍕 Order %s ready for delivery! Driver will arrive soon.", order.getOrderId());
+            case IN_TRANSIT:
+                return String.format("🚚 Order %s on the way! ETA: 10-15 min. Track: restaurant.com/track/%s",
+                        order.getOrderId(), order.getOrderId());
+            case DELIVERED:
+                return String.format("✅ Order %s delivered! Enjoy your meal! Rate us: restaurant.com/rate",
+                        order.getOrderId());
+            default:
+                return String.format("Order %s: %s", order.getOrderId(), status.getStatusName().toLowerCase());
+        }
+    }
+
+    private void sendSMS(String phone, String message) {
+        System.out.printf("📱 [%s] SMS sent to %s%n", serviceName, phone);
+        System.out.printf("   Message: %s%n", message);
+    }
+}
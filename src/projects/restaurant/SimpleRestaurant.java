@@ -0,0 +1,531 @@
+package projects.restaurant;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.nio.file.Path;
+
+// ============================================================================
+// ENHANCED RESTAURANT CLASS - Now with Observer Pattern
+// ============================================================================
+
+class SimpleRestaurant {
+    static final int PLACEMENT_THREADS = 4;
+
+    // Readers take one volatile read and work on that immutable snapshot; writers
+    // (reloadMenu) build a complete new catalog and publish it with one write
+    private volatile MenuCatalog menuCatalog;
+    private final MenuSearchIndex menuSearch;
+    private volatile MenuWatcher menuWatcher;
+    private final OrderManager orderManager;
+    private final CommandInvoker commandInvoker;
+    private final PaymentProcessor paymentProcessor;
+    // Completes async placements once the gateway answers; a fixed set of threads, and
+    // an unbounded queue because a paid order must not be dropped
+    private final ExecutorService placementExecutor = Executors.newFixedThreadPool(PLACEMENT_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "order-placement");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PaymentStrategy defaultPaymentStrategy;
+    private final OrderEventBus eventBus;
+
+    // Notification services
+    private final EmailNotificationService emailService;
+    private final SMSNotificationService smsService;
+    private final PushNotificationService pushService;
+    private final RestaurantDashboard restaurantDashboard;
+    private final AnalyticsService analyticsService;
+    private final StateLatencyTracker stateLatencyTracker;
+
+    // Notification services subscribed to the bus (async wrappers once async mode is on)
+    private final List<OrderObserver> notificationObservers = new ArrayList<>();
+    private final List<AsyncOrderObserver> asyncObservers = new CopyOnWriteArrayList<>();
+    private volatile OrderEventLog eventLog;
+    private volatile OrderSnapshotter snapshotter;
+    private volatile KitchenScheduler kitchen;
+    private volatile DeliveryDispatcher dispatcher;
+    private volatile AdmissionController admission;
+
+    SimpleRestaurant() {
+        this.eventBus = new OrderEventBus();
+        this.orderManager = new OrderManager(eventBus);
+        this.commandInvoker = new CommandInvoker(CommandInvoker.DEFAULT_CAPACITY, null, eventBus);
+        this.paymentProcessor = new PaymentProcessor();
+        this.defaultPaymentStrategy = new CashOnDeliveryPayment();
+
+        // Initialize notification services
+        this.emailService = new EmailNotificationService();
+        this.smsService = new SMSNotificationService();
+        this.pushService = new PushNotificationService();
+        this.restaurantDashboard = new RestaurantDashboard();
+        this.analyticsService = new AnalyticsService();
+        this.stateLatencyTracker = new StateLatencyTracker();
+
+        // Dwell times are read from the order's own timestamps, so the tracker is cheap
+        // enough to stay synchronous even in async mode
+        eventBus.subscribe(stateLatencyTracker);
+
+        // Subscribe notification services once for all orders
+        addNotificationObserver(emailService);
+        addNotificationObserver(smsService);
+        addNotificationObserver(pushService);
+        addNotificationObserver(restaurantDashboard);
+        addNotificationObserver(analyticsService);
+
+        initializeMenu();
+        this.menuSearch = new MenuSearchIndex(menuCatalog);
+    }
+
+    // Built-in demo menu; reloadMenu/watchMenu replace it with one from a file
+    private void initializeMenu() {
+        this.menuCatalog = MenuFile.parse(List.of(MenuFile.DEFAULT_MENU.split("\n")), "default menu", null);
+    }
+
+    public void displayMenu() {
+        System.out.println("📋 RESTAURANT MENU");
+        System.out.println("=".repeat(40));
+        menuCatalog.display();
+        System.out.println("=".repeat(40));
+    }
+
+    // Position within a category as shown by displayMenu(); changes when the menu is
+    // reordered, so prefer the stable ID
+    public MenuItem findMenuItem(String categoryName, int itemIndex) {
+        MenuCatalog.Category category = menuCatalog.getCategory(categoryName);
+        return category != null ? category.getItem(itemIndex) : null;
+    }
+
+    public MenuItem findMenuItem(int itemId) {
+        return menuCatalog.getItem(itemId);
+    }
+
+    // Case-insensitive, e.g. "quattro stagioni"
+    public MenuItem findMenuItem(String name) {
+        return menuCatalog.findItem(name);
+    }
+
+    public MenuCatalog getMenuCatalog() {
+        return menuCatalog;
+    }
+
+    // Kiosk autocomplete: "marg" -> Margherita; "pizza pep" -> Pepperoni
+    public List<MenuItem> autocompleteMenu(String text, int limit) {
+        return menuSearch.autocomplete(text, limit);
+    }
+
+    // Ranked and typo-tolerant: "margarita" and "peperoni" still find the pizzas
+    public List<MenuItem> searchMenu(String query, int limit) {
+        return menuSearch.search(query, limit);
+    }
+
+    // The builder resolves item IDs and names against the menu as it is now, so one
+    // order never mixes two menu versions; built orders keep their items' prices
+    public Order.Builder createOrderBuilder(String customerName, String customerPhone) {
+        return new Order.Builder(customerName, customerPhone).setMenu(menuCatalog);
+    }
+
+    // Replaces the menu with the file's contents. Items still on the menu keep their
+    // IDs; the search index is updated for changed items only. Lock-free for readers.
+    public synchronized int reloadMenu(Path file) {
+        MenuCatalog previous = menuCatalog;
+        MenuCatalog next = MenuFile.load(file, previous);
+        // Catalog first: the index may lag the menu for a moment but never runs ahead
+        // of it, so search never offers an item an order cannot yet be built with
+        menuCatalog = next;
+        int changed = menuSearch.update(next);
+        System.out.printf("🔄 Menu loaded from %s: %d items, %d changed%n", file.getFileName(), next.size(), changed);
+        return changed;
+    }
+
+    // Loads the file now and again whenever it changes
+    public synchronized MenuWatcher watchMenu(Path file, long pollMillis) {
+        if (menuWatcher != null) {
+            throw new IllegalStateException("Already watching menu file " + menuWatcher.getFile());
+        }
+        MenuWatcher watcher = new MenuWatcher(this, file);
+        watcher.start(pollMillis);
+        menuWatcher = watcher;
+        return menuWatcher;
+    }
+
+    // Move every notification service onto its own bounded queue and worker thread,
+    // so slow channels never add latency to order placement or state changes
+    public void enableAsyncNotifications(OverflowPolicy overflowPolicy, int queueCapacity) {
+        enableAsyncNotifications(overflowPolicy, queueCapacity, AsyncOrderObserver.DEFAULT_BLOCK_MILLIS);
+    }
+
+    // blockMillis: with BLOCK, how long a state change may wait for queue space before
+    // the oldest queued notification is dropped instead
+    public synchronized void enableAsyncNotifications(OverflowPolicy overflowPolicy, int queueCapacity,
+                                                      long blockMillis) {
+        if (!asyncObservers.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < notificationObservers.size(); i++) {
+            OrderObserver observer = notificationObservers.get(i);
+            AsyncOrderObserver async = new AsyncOrderObserver(observer, queueCapacity, overflowPolicy, blockMillis);
+            eventBus.replace(observer, async);
+            asyncObservers.add(async);
+            notificationObservers.set(i, async);
+        }
+    }
+
+    public synchronized void addNotificationObserver(OrderObserver observer) {
+        if (!asyncObservers.isEmpty()) {
+            AsyncOrderObserver first = asyncObservers.get(0);
+            AsyncOrderObserver async = new AsyncOrderObserver(observer,
+                    first.getCapacity(), first.getOverflowPolicy(), first.getBlockMillis());
+            asyncObservers.add(async);
+            observer = async;
+        }
+        notificationObservers.add(observer);
+        eventBus.subscribe(observer);
+    }
+
+    public void showNotificationMetrics() {
+        System.out.println("\n📬 NOTIFICATION QUEUES");
+        System.out.println("=".repeat(60));
+        if (asyncObservers.isEmpty()) {
+            System.out.println("Notifications are delivered synchronously");
+        }
+        for (AsyncOrderObserver observer : asyncObservers) {
+            System.out.println(observer);
+        }
+        System.out.println("=".repeat(60));
+    }
+
+    public List<AsyncOrderObserver> getNotificationQueues() {
+        return new ArrayList<>(asyncObservers);
+    }
+
+    // Delivers any queued notifications and stops the async workers
+    public void shutdown() {
+        if (menuWatcher != null) {
+            menuWatcher.close();
+        }
+        if (kitchen != null) {
+            kitchen.close();
+        }
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+        paymentProcessor.close();
+        placementExecutor.shutdown();
+        try {
+            placementExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (AsyncOrderObserver observer : asyncObservers) {
+            observer.close(5, TimeUnit.SECONDS);
+        }
+        if (snapshotter != null) {
+            snapshotter.close();
+        }
+        commandInvoker.close();
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
+
+    // Makes orders durable: replays the log at path to rebuild every order that was
+    // live when the process stopped, then logs all further events to it.
+    // groupCommitMillis bounds how much can be lost on a crash (0 = sync every event).
+    // Only order state is recovered; the undo/redo history starts empty.
+    public synchronized int openEventLog(Path path, long groupCommitMillis) {
+        return openEventLog(path, null, groupCommitMillis);
+    }
+
+    // Same, but starts from the newest snapshot (if any) and replays only the log after it
+    public synchronized int openEventLog(Path path, Path snapshotPath, long groupCommitMillis) {
+        if (eventLog != null) {
+            throw new IllegalStateException("Event log already open: " + eventLog.getFile());
+        }
+        OrderEventLog log = new OrderEventLog(path, groupCommitMillis);
+        OrderSnapshotter.Loaded snapshot = snapshotPath != null ? OrderSnapshotter.load(snapshotPath) : null;
+        Map<Long, Order> recovered = snapshot != null && snapshot.logOffset >= 0
+                ? log.recoverOrders(snapshot.logOffset, snapshot.orders)
+                : log.recoverOrders();
+        addRecoveredOrders(recovered);
+        IdGenerator.getDefault().advancePast(log.getHighestOrderNumber()); // includes removed orders
+        eventBus.setJournal(log); // appended before any observer is told, failures reach the caller
+        this.eventLog = log;
+        System.out.println("💾 Event log " + path + ": recovered " + recovered.size() + " orders"
+                + (snapshot != null ? " (" + snapshot.orders.size() + " from snapshot)" : ""));
+        return recovered.size();
+    }
+
+    // Without an event log: reloads the orders in a snapshot as they were when it was taken
+    public synchronized int restoreSnapshot(Path snapshotPath) {
+        OrderSnapshotter.Loaded snapshot = OrderSnapshotter.load(snapshotPath);
+        if (snapshot == null) {
+            return 0;
+        }
+        addRecoveredOrders(snapshot.orders);
+        System.out.println("💾 Snapshot " + snapshotPath + ": restored " + snapshot.orders.size() + " orders");
+        return snapshot.orders.size();
+    }
+
+    // Recovered order numbers may be ahead of the clock; new orders must not reuse them
+    private void addRecoveredOrders(Map<Long, Order> recovered) {
+        for (Order order : recovered.values()) {
+            order.attachEventBus(eventBus);
+            orderManager.addOrderDirect(order);
+            IdGenerator.getDefault().advancePast(order.getOrderNumber());
+        }
+    }
+
+    // Snapshots all orders to path every intervalMillis on a background thread (and once more
+    // on shutdown). Open the event log first so snapshots record where replay should resume;
+    // each snapshot then compacts the log up to that point, so restarts need the snapshot.
+    public synchronized OrderSnapshotter startSnapshots(Path path, long intervalMillis) {
+        if (snapshotter != null) {
+            throw new IllegalStateException("Snapshots already running: " + snapshotter.getFile());
+        }
+        snapshotter = new OrderSnapshotter(orderManager, path, eventLog);
+        snapshotter.start(intervalMillis);
+        return snapshotter;
+    }
+
+    public OrderEventLog getEventLog() {
+        return eventLog;
+    }
+
+    // From now on orders entering PREPARING are cooked by the kitchen's stations and
+    // moved to READY when done; orders already PREPARING are queued right away.
+    // The kitchen observes synchronously (it only enqueues), even in async mode.
+    // Its transitions are not commands in the undo history, which stays the operator's;
+    // they still go through the order lock, the event bus and so the event log.
+    public synchronized KitchenScheduler startKitchen(KitchenScheduler.Builder config) {
+        if (kitchen != null) {
+            throw new IllegalStateException("Kitchen already running");
+        }
+        kitchen = config.build(this::getMenuCatalog,
+                order -> new ProcessOrderCommand(orderManager, order.getOrderId(), OrderState.PREPARING).execute());
+        eventBus.subscribe(kitchen);
+        for (Order order : orderManager.getOrdersByStatus(OrderState.PREPARING)) {
+            kitchen.schedule(order);
+        }
+        return kitchen;
+    }
+
+    public KitchenScheduler getKitchen() {
+        return kitchen;
+    }
+
+    // From now on READY orders with a delivery address are batched by area and handed
+    // to drivers every tickMillis: each batch goes READY -> IN_TRANSIT all or nothing,
+    // and each stop IN_TRANSIT -> DELIVERED when the driver reaches it. Like the
+    // kitchen's, these transitions stay out of the undo history.
+    // tickMillis 0 leaves ticking to the caller (e.g. a simulator with its own clock).
+    public synchronized DeliveryDispatcher startDispatch(DeliveryDispatcher.Builder config, long tickMillis) {
+        if (dispatcher != null) {
+            throw new IllegalStateException("Dispatch already running");
+        }
+        dispatcher = config.build(orders -> {
+            List<Command> pickUps = new ArrayList<>(orders.size());
+            for (Order order : orders) {
+                pickUps.add(new ProcessOrderCommand(orderManager, order.getOrderId(), OrderState.READY));
+            }
+            return commandInvoker.applyBatch(pickUps);
+        }, order -> new ProcessOrderCommand(orderManager, order.getOrderId(), OrderState.IN_TRANSIT).execute());
+        eventBus.subscribe(dispatcher);
+        for (Order order : orderManager.getOrdersByStatus(OrderState.READY)) {
+            dispatcher.offer(order);
+        }
+        if (tickMillis > 0) {
+            dispatcher.start(tickMillis);
+        }
+        return dispatcher;
+    }
+
+    public DeliveryDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public void showDispatch() {
+        if (dispatcher == null) {
+            System.out.println("\n🚚 Delivery dispatch is off; orders are sent out by processOrder");
+            return;
+        }
+        dispatcher.printReport();
+    }
+
+    // Fast rejection instead of unbounded queuing: per-channel rate limits plus a
+    // concurrency limit that adapts to placement (payment) latency and, when the
+    // kitchen is running, to how long its tasks wait
+    public synchronized AdmissionController enableAdmissionControl(AdmissionController.Builder config) {
+        if (admission != null) {
+            throw new IllegalStateException("Admission control already enabled");
+        }
+        admission = config.build(() -> {
+            KitchenScheduler current = kitchen;
+            return current != null ? current.getCurrentQueueWaitMicros() : 0;
+        });
+        return admission;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admission;
+    }
+
+    public void showAdmission() {
+        if (admission == null) {
+            System.out.println("\n🚦 Admission control is off; every order is accepted");
+            return;
+        }
+        admission.printReport();
+    }
+
+    public void showKitchen() {
+        if (kitchen == null) {
+            System.out.println("\n👨‍🍳 Kitchen scheduling is off; orders are prepared by processOrder");
+            return;
+        }
+        kitchen.printReport();
+    }
+
+    // Pays with the strategy set on the order's builder (cash on delivery if none)
+    public boolean placeOrder(Order order) {
+        return placeOrder(order, paymentStrategyFor(order));
+    }
+
+    // With admission control on, throws OrderRejectedException (before any payment)
+    // when the order's channel is over its rate or the restaurant over capacity
+    public boolean placeOrder(Order order, PaymentStrategy paymentStrategy) {
+        AdmissionController gate = admission;
+        long admittedAt = gate != null ? gate.acquire(order.getChannel()) : 0;
+        try {
+            // The order publishes to the restaurant's shared bus; no per-order subscriptions
+            order.attachEventBus(eventBus);
+
+            Command command = new PlaceOrderCommand(orderManager, order, paymentProcessor, paymentStrategy,
+                    placementExecutor);
+            boolean success = commandInvoker.executeCommand(command);
+            if (success) {
+                order.displaySummary();
+            }
+            return success;
+        } finally {
+            if (gate != null) {
+                gate.release(admittedAt);
+            }
+        }
+    }
+
+    // Non-blocking placement: returns as soon as the payment request is sent
+    public CompletableFuture<Boolean> placeOrderAsync(Order order) {
+        return placeOrderAsync(order, paymentStrategyFor(order));
+    }
+
+    // A rejected order completes the future exceptionally with OrderRejectedException
+    public CompletableFuture<Boolean> placeOrderAsync(Order order, PaymentStrategy paymentStrategy) {
+        AdmissionController gate = admission;
+        long admittedAt;
+        try {
+            admittedAt = gate != null ? gate.acquire(order.getChannel()) : 0;
+        } catch (OrderRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        order.attachEventBus(eventBus);
+
+        Command command = new PlaceOrderCommand(orderManager, order, paymentProcessor, paymentStrategy,
+                placementExecutor);
+        CompletableFuture<Boolean> placed = commandInvoker.executeCommandAsync(command).thenApply(success -> {
+            if (success) {
+                order.displaySummary();
+            }
+            return success;
+        });
+        return gate == null ? placed : placed.whenComplete((success, error) -> gate.release(admittedAt));
+    }
+
+    private PaymentStrategy paymentStrategyFor(Order order) {
+        PaymentStrategy strategy = order.getPaymentStrategy();
+        return strategy != null ? strategy : defaultPaymentStrategy;
+    }
+
+    public boolean processOrder(String orderId) {
+        Command command = new ProcessOrderCommand(orderManager, orderId);
+        return commandInvoker.executeCommand(command);
+    }
+
+    public boolean cancelOrder(String orderId) {
+        Command command = new CancelOrderCommand(orderManager, orderId);
+        return commandInvoker.executeCommand(command);
+    }
+
+    // Applies the commands as one unit: one history entry, one coalesced round of notifications
+    public boolean executeBatch(List<Command> commands) {
+        return commandInvoker.executeBatch(commands);
+    }
+
+    // e.g. a driver picking up several orders at once
+    public boolean processOrders(List<String> orderIds) {
+        List<Command> commands = new ArrayList<>(orderIds.size());
+        for (String orderId : orderIds) {
+            commands.add(new ProcessOrderCommand(orderManager, orderId));
+        }
+        return commandInvoker.executeBatch(commands);
+    }
+
+    public boolean undo() {
+        return commandInvoker.undo();
+    }
+
+    public boolean redo() {
+        return commandInvoker.redo();
+    }
+
+    public void showCommandHistory() {
+        commandInvoker.showHistory();
+    }
+
+    // Pages through the full history, including commands that left the undo window
+    public void showCommandHistory(int page, int pageSize) {
+        commandInvoker.showHistory(page, pageSize);
+    }
+
+    public long getCommandHistorySize() {
+        return commandInvoker.getHistorySize();
+    }
+
+    public Order getOrder(String orderId) {
+        return orderManager.getOrder(orderId);
+    }
+
+    public Collection<Order> getAllOrders() {
+        return orderManager.getAllOrders();
+    }
+
+    public List<Order> getOrdersByStatus(OrderState status) {
+        return orderManager.getOrdersByStatus(status);
+    }
+
+    public List<Order> getOrdersByCustomer(String customerPhone) {
+        return orderManager.getOrdersByCustomer(customerPhone);
+    }
+
+    public void showAnalytics() {
+        analyticsService.printDashboard();
+    }
+
+    public AnalyticsService.Snapshot getAnalyticsSnapshot() {
+        return analyticsService.getSnapshot();
+    }
+
+    public void showStateLatencies() {
+        stateLatencyTracker.printReport();
+    }
+
+    public StateLatencyTracker getStateLatencyTracker() {
+        return stateLatencyTracker;
+    }
+}
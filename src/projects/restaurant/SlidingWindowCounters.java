@@ -0,0 +1,101 @@
+package projects.restaurant;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// ============================================================================
+// SLIDING WINDOW COUNTERS - rolling totals over a ring of time buckets
+// ============================================================================
+
+// A ring of `buckets` fixed-width time buckets, each holding a set of long counters
+// plus the epoch (time / bucketMillis) it currently counts for. An update touches
+// only the bucket for "now", so it is O(1); a window query sums the buckets whose
+// epoch falls inside the window, so it is O(buckets) however many events arrived.
+//
+// A bucket is recycled lazily by the first update that finds it holding an old
+// epoch: that thread marks it as resetting (a negative epoch), zeroes it and
+// publishes the new epoch; concurrent updaters briefly wait for it.
+class SlidingWindowCounters {
+    private final int fields;
+    private final int stride;
+    private final int buckets;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final AtomicLongArray cells; // per bucket: [epoch][field 0 .. field n-1]
+
+    SlidingWindowCounters(int fields, long bucketMillis, int buckets, LongSupplier clock) {
+        this.fields = fields;
+        this.stride = fields + 1;
+        this.buckets = buckets;
+        this.bucketMillis = bucketMillis;
+        this.clock = clock;
+        this.cells = new AtomicLongArray(buckets * stride);
+        for (int b = 0; b < buckets; b++) {
+            cells.set(b * stride, Long.MIN_VALUE); // never used
+        }
+    }
+
+    // Callers read the clock once per event and pass it to every ring they update
+    public void add(long nowMillis, int field, long delta) {
+        int base = bucketFor(nowMillis);
+        cells.getAndAdd(base + 1 + field, delta);
+    }
+
+    public void add(long nowMillis, int field, long delta, int otherField, long otherDelta) {
+        int base = bucketFor(nowMillis);
+        cells.getAndAdd(base + 1 + field, delta);
+        cells.getAndAdd(base + 1 + otherField, otherDelta);
+    }
+
+    private int bucketFor(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        int base = (int) (epoch % buckets) * stride;
+        for (int spins = 1; ; spins++) {
+            long held = cells.get(base);
+            if (held >= epoch) {
+                return base; // current (or, for a thread with a slightly stale clock, newer)
+            }
+            if (held < 0 && held != Long.MIN_VALUE) {
+                Thread.onSpinWait(); // another thread is recycling it
+                if (spins % 64 == 0) {
+                    Thread.yield();
+                }
+                continue;
+            }
+            if (cells.compareAndSet(base, held, -epoch - 1)) {
+                for (int f = 0; f < fields; f++) {
+                    cells.set(base + 1 + f, 0);
+                }
+                cells.set(base, epoch);
+                return base;
+            }
+        }
+    }
+
+    // Sums of every field over the last windowMillis (rounded up to whole buckets,
+    // the newest of which is still filling)
+    public long[] sum(long windowMillis) {
+        long[] totals = new long[fields];
+        long now = clock.getAsLong() / bucketMillis;
+        long oldest = now - Math.min(buckets, Math.max(1, (windowMillis + bucketMillis - 1) / bucketMillis)) + 1;
+        for (int base = 0; base < cells.length(); base += stride) {
+            long epoch = cells.get(base);
+            if (epoch < oldest || epoch > now) {
+                continue;
+            }
+            for (int f = 0; f < fields; f++) {
+                totals[f] += cells.get(base + 1 + f);
+            }
+        }
+        return totals;
+    }
+
+    // How much time the window's buckets actually cover right now
+    public long coveredMillis(long windowMillis) {
+        long windowBuckets = Math.min(buckets, Math.max(1, (windowMillis + bucketMillis - 1) / bucketMillis));
+        return (windowBuckets - 1) * bucketMillis + clock.getAsLong() % bucketMillis + 1;
+    }
+
+    public long getBucketMillis() { return bucketMillis; }
+    public long getSpanMillis() { return bucketMillis * buckets; }
+}
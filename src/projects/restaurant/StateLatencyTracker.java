@@ -0,0 +1,193 @@
+package projects.restaurant;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// ============================================================================
+// STATE LATENCY TRACKER - how long orders spend in each state
+// ============================================================================
+
+// Records, for every state an order leaves, the time it spent there (dwell time,
+// taken from the per-state timestamps the order keeps) into a LatencyHistogram.
+// Each state has an all-time histogram plus a ring of 60 one-minute histograms,
+// recycled lazily like SlidingWindowCounters, so p50/p99/p999 can be asked for the
+// whole run or for any window up to an hour. Minute histograms are allocated on
+// first use. Nothing is printed per event; call printReport() to see the table.
+class StateLatencyTracker implements OrderObserver {
+    private static final long ONE_MINUTE = AnalyticsService.ONE_MINUTE;
+    private static final int MINUTES = 60;
+    private static final OrderState[] TRACKED = {
+            OrderState.PENDING, OrderState.CONFIRMED, OrderState.PREPARING, OrderState.READY, OrderState.IN_TRANSIT
+    };
+
+    private final LongSupplier clock;
+    private final LatencyHistogram[] allTime = new LatencyHistogram[OrderState.values().length];
+    private final LatencyHistogram[][] minutes = new LatencyHistogram[OrderState.values().length][];
+    private final AtomicLongArray[] minuteEpochs = new AtomicLongArray[OrderState.values().length];
+
+    StateLatencyTracker() {
+        this(System::currentTimeMillis);
+    }
+
+    StateLatencyTracker(LongSupplier clock) {
+        this.clock = clock;
+        for (OrderState state : TRACKED) {
+            int s = state.ordinal();
+            allTime[s] = new LatencyHistogram();
+            minutes[s] = new LatencyHistogram[MINUTES];
+            minuteEpochs[s] = new AtomicLongArray(MINUTES);
+            for (int m = 0; m < MINUTES; m++) {
+                minuteEpochs[s].set(m, Long.MIN_VALUE); // never used
+            }
+        }
+    }
+
+    @Override
+    public OrderEventInterest getInterest() {
+        return OrderEventInterest.of(OrderEventType.STATUS_CHANGED);
+    }
+
+    @Override
+    public void onOrderPlaced(Order order) {}
+
+    // A coalesced batch event may skip states (PENDING -> PREPARING); every state
+    // passed through is recorded. Undo transitions (backwards) are ignored.
+    @Override
+    public void onOrderStatusChanged(Order order, OrderState previousStatus, OrderState newStatus) {
+        boolean cancelled = newStatus == OrderState.CANCELLED;
+        if (cancelled ? !previousStatus.canCancel() : newStatus.ordinal() <= previousStatus.ordinal()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        OrderState state = previousStatus;
+        while (state != newStatus) {
+            OrderState next = cancelled ? nextBeforeCancel(order, state) : state.next();
+            long entered = order.getStateEnteredAtNanos(state);
+            long left = order.getStateEnteredAtNanos(next);
+            if (entered != 0 && left >= entered) {
+                record(state, (left - entered) / 1_000, now);
+            }
+            state = next;
+        }
+    }
+
+    // In a batch an order can move on (PENDING -> CONFIRMED) before being cancelled
+    private static OrderState nextBeforeCancel(Order order, OrderState state) {
+        OrderState next = state.next();
+        if (next != null && next.canCancel()) {
+            long entered = order.getStateEnteredAtNanos(next);
+            if (entered != 0 && entered >= order.getStateEnteredAtNanos(state)
+                    && entered <= order.getStateEnteredAtNanos(OrderState.CANCELLED)) {
+                return next;
+            }
+        }
+        return OrderState.CANCELLED;
+    }
+
+    @Override
+    public void onOrderCancelled(Order order) {}
+
+    @Override
+    public void onPaymentProcessed(Order order, PaymentResult paymentResult) {}
+
+    public void record(OrderState state, long dwellMicros, long nowMillis) {
+        int s = state.ordinal();
+        if (allTime[s] == null) {
+            return; // terminal states have no dwell time
+        }
+        allTime[s].record(dwellMicros);
+        minuteFor(s, nowMillis / ONE_MINUTE).record(dwellMicros);
+    }
+
+    private LatencyHistogram minuteFor(int s, long epoch) {
+        AtomicLongArray epochs = minuteEpochs[s];
+        int slot = (int) (epoch % MINUTES);
+        for (int spins = 1; ; spins++) {
+            long held = epochs.get(slot);
+            if (held >= epoch) {
+                return minutes[s][slot];
+            }
+            if (held < 0 && held != Long.MIN_VALUE) {
+                Thread.onSpinWait(); // another thread is recycling it
+                if (spins % 64 == 0) {
+                    Thread.yield();
+                }
+                continue;
+            }
+            if (epochs.compareAndSet(slot, held, -epoch - 1)) {
+                if (minutes[s][slot] == null) {
+                    minutes[s][slot] = new LatencyHistogram();
+                } else {
+                    minutes[s][slot].reset();
+                }
+                epochs.set(slot, epoch); // publishes the histogram to readers of the epoch
+                return minutes[s][slot];
+            }
+        }
+    }
+
+    public LatencyHistogram getHistogram(OrderState state) {
+        LatencyHistogram histogram = allTime[state.ordinal()];
+        return histogram != null ? histogram : new LatencyHistogram();
+    }
+
+    // Merged copy over the last windowMillis (rounded up to whole minutes, the newest
+    // still filling; at most an hour)
+    public LatencyHistogram getHistogram(OrderState state, long windowMillis) {
+        LatencyHistogram merged = new LatencyHistogram();
+        int s = state.ordinal();
+        if (allTime[s] == null) {
+            return merged;
+        }
+        long now = clock.getAsLong() / ONE_MINUTE;
+        long oldest = now - Math.min(MINUTES, Math.max(1, (windowMillis + ONE_MINUTE - 1) / ONE_MINUTE)) + 1;
+        for (int slot = 0; slot < MINUTES; slot++) {
+            long epoch = minuteEpochs[s].get(slot);
+            if (epoch >= oldest && epoch <= now) {
+                merged.add(minutes[s][slot]);
+            }
+        }
+        return merged;
+    }
+
+    // Dwell time in microseconds, e.g. getPercentile(PREPARING, 99.9, AnalyticsService.FIFTEEN_MINUTES)
+    public long getPercentile(OrderState state, double percentile, long windowMillis) {
+        return getHistogram(state, windowMillis).getValueAtPercentile(percentile);
+    }
+
+    public long getPercentile(OrderState state, double percentile) {
+        return getHistogram(state).getValueAtPercentile(percentile);
+    }
+
+    public void printReport() {
+        printReport("all time", 0);
+        printReport("last 15 min", AnalyticsService.FIFTEEN_MINUTES);
+    }
+
+    // windowMillis 0 means all time
+    public void printReport(String label, long windowMillis) {
+        System.out.println("\n⏱️ TIME IN STATE (" + label + ")");
+        System.out.println("=".repeat(64));
+        System.out.printf("%-11s %9s %10s %10s %10s %10s%n", "State", "Orders", "p50", "p99", "p999", "max");
+        for (OrderState state : TRACKED) {
+            LatencyHistogram histogram = windowMillis == 0 ? getHistogram(state) : getHistogram(state, windowMillis);
+            System.out.printf("%-11s %9d %10s %10s %10s %10s%n", state, histogram.getCount(),
+                    formatMicros(histogram.getValueAtPercentile(50)),
+                    formatMicros(histogram.getValueAtPercentile(99)),
+                    formatMicros(histogram.getValueAtPercentile(99.9)),
+                    formatMicros(histogram.getMax()));
+        }
+        System.out.println("=".repeat(64));
+    }
+
+    static String formatMicros(long micros) {
+        if (micros < 1_000) {
+            return micros + "us";
+        } else if (micros < 1_000_000) {
+            return String.format("%.1fms", micros / 1_000.0);
+        } else if (micros < 60_000_000) {
+            return String.format("%.1fs", micros / 1_000_000.0);
+        }
+        return String.format("%.1fmin", micros / 60_000_000.0);
+    }
+}
@@ -0,0 +1,119 @@
+package projects.restaurant;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// ============================================================================
+// STRIPED COUNTERS - contention-free metrics with consistent multi-field reads
+// ============================================================================
+
+// A fixed set of long counters spread over stripes, like a LongAdder per field,
+// except that one update can change several fields atomically (e.g. "one more
+// successful payment" and "+1299 cents revenue").
+//
+// Each stripe sits on its own cache lines and carries a sequence number (a
+// seqlock): a writer makes it odd, updates the fields, and makes it even again.
+// Writers pick a stripe from their thread ID and move to the next stripe if it is
+// busy, so they almost never wait on each other. Readers never block anyone; they
+// retry a stripe whose sequence changed under them, so every update is seen
+// either completely or not at all. The update path allocates nothing.
+class StripedCounters {
+    private static final int PADDING_LONGS = 16; // 128 bytes, keeps stripes off each other's cache lines
+
+    private final int fields;
+    private final int stride;
+    private final int stripeMask;
+    private final AtomicLongArray cells; // per stripe: [sequence][field 0 .. field n-1][padding]
+
+    StripedCounters(int fields) {
+        this(fields, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    StripedCounters(int fields, int minimumStripes) {
+        int stripes = Integer.highestOneBit(Math.max(1, minimumStripes - 1)) << 1;
+        this.fields = fields;
+        this.stride = ((1 + fields + PADDING_LONGS - 1) / PADDING_LONGS + 1) * PADDING_LONGS;
+        this.stripeMask = stripes - 1;
+        this.cells = new AtomicLongArray(stripes * stride);
+    }
+
+    // Field writes need no fences of their own: the CAS that takes the stripe orders them
+    // after the odd sequence, and the release store of the even sequence publishes them.
+    public void add(int field, long delta) {
+        int base = lockStripe();
+        bump(base + 1 + field, delta);
+        unlockStripe(base);
+    }
+
+    // Both deltas become visible to readers together
+    public void add(int field, long delta, int otherField, long otherDelta) {
+        int base = lockStripe();
+        bump(base + 1 + field, delta);
+        bump(base + 1 + otherField, otherDelta);
+        unlockStripe(base);
+    }
+
+    private void bump(int index, long delta) {
+        cells.setOpaque(index, cells.getPlain(index) + delta);
+    }
+
+    private int lockStripe() {
+        int stripe = (int) mix(Thread.currentThread().getId()) & stripeMask;
+        for (int attempt = 1; ; attempt++) {
+            int base = stripe * stride;
+            long sequence = cells.get(base);
+            if ((sequence & 1) == 0 && cells.compareAndSet(base, sequence, sequence + 1)) {
+                return base;
+            }
+            stripe = (stripe + 1) & stripeMask; // busy: another writer holds it, use the next one
+            if ((attempt & stripeMask) == 0) {
+                Thread.yield(); // every stripe busy: their writers are probably descheduled
+            }
+        }
+    }
+
+    private void unlockStripe(int base) {
+        cells.setRelease(base, cells.getPlain(base) + 1);
+    }
+
+    // Sums every field; each stripe is read at a moment when no writer was inside it
+    public long[] snapshot() {
+        long[] totals = new long[fields];
+        long[] stripe = new long[fields];
+        for (int base = 0; base < cells.length(); base += stride) {
+            for (int spins = 1; ; spins++) {
+                long before = cells.get(base);
+                if ((before & 1) != 0) {
+                    if (spins % 64 == 0) {
+                        Thread.yield();
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                    continue;
+                }
+                for (int f = 0; f < fields; f++) {
+                    stripe[f] = cells.get(base + 1 + f);
+                }
+                if (cells.get(base) == before) {
+                    break;
+                }
+            }
+            for (int f = 0; f < fields; f++) {
+                totals[f] += stripe[f];
+            }
+        }
+        return totals;
+    }
+
+    public long sum(int field) {
+        return snapshot()[field];
+    }
+
+    public int getStripeCount() {
+        return stripeMask + 1;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        return value ^ (value >>> 33);
+    }
+}